@@ -0,0 +1,61 @@
+package com.hrmanagement.benchmark;
+
+import com.hrmanagement.HrBackendApplication;
+import com.hrmanagement.model.User;
+import com.hrmanagement.repository.UserRepository;
+import com.hrmanagement.security.services.UserPrincipal;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Khởi động ứng dụng trên H2 in-memory (không cần Postgres) cho các benchmark JMH
+ * và các hàm tạo dữ liệu giả dùng chung.
+ */
+final class BenchmarkApplication {
+
+    private BenchmarkApplication() {}
+
+    static ConfigurableApplicationContext start() {
+        // Luồng JMH khác luồng setup: dùng SecurityContext toàn cục
+        SecurityContextHolder.setStrategyName(SecurityContextHolder.MODE_GLOBAL);
+
+        String[] args = {
+                "--spring.datasource.url=jdbc:h2:mem:bench" + System.nanoTime()
+                        + ";MODE=PostgreSQL;DATABASE_TO_LOWER=TRUE;DEFAULT_NULL_ORDERING=HIGH;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--spring.main.web-application-type=none",
+                "--spring.main.banner-mode=off",
+                "--spring.devtools.restart.enabled=false",
+                "--logging.level.root=WARN",
+                "--logging.level.com.hrmanagement=WARN",
+                "--logging.level.org.springframework.security=WARN"
+        };
+        return SpringApplication.run(HrBackendApplication.class, args);
+    }
+
+    static void authenticateAs(User user) {
+        UserPrincipal principal = UserPrincipal.of(user);
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    static List<User> createUsers(UserRepository userRepository, String role, int count) {
+        long seed = System.nanoTime();
+        List<User> users = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            // Mật khẩu không dùng để đăng nhập nên không cần mã hóa BCrypt
+            users.add(new User(role + " " + i, role + "-" + seed + "-" + i + "@bench.local", "benchmark", role));
+        }
+        return userRepository.saveAll(users);
+    }
+}
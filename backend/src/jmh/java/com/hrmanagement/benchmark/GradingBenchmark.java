@@ -0,0 +1,89 @@
+package com.hrmanagement.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hrmanagement.model.Assignment;
+import com.hrmanagement.model.AssignmentQuestion;
+import com.hrmanagement.model.AssignmentSubmission;
+import com.hrmanagement.model.User;
+import com.hrmanagement.repository.AssignmentQuestionRepository;
+import com.hrmanagement.repository.AssignmentRepository;
+import com.hrmanagement.repository.UserRepository;
+import com.hrmanagement.service.AssignmentSubmissionService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Nộp bài + tự động chấm MCQ (AssignmentSubmissionService.submitAssignment)
+ * cho một bài tập có số câu hỏi cấu hình được; một nửa số câu trả lời đúng.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class GradingBenchmark {
+
+    @Param({"10", "100"})
+    public int questions;
+
+    private ConfigurableApplicationContext context;
+    private AssignmentSubmissionService submissionService;
+    private Long assignmentId;
+    private String answersJson;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        context = BenchmarkApplication.start();
+        submissionService = context.getBean(AssignmentSubmissionService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+
+        User teacher = BenchmarkApplication.createUsers(userRepository, "teacher", 1).get(0);
+        User student = BenchmarkApplication.createUsers(userRepository, "student", 1).get(0);
+
+        Assignment assignment = new Assignment();
+        assignment.setTeacher(teacher);
+        assignment.setType("homework");
+        assignment.setTitle("Benchmark assignment");
+        assignment = context.getBean(AssignmentRepository.class).save(assignment);
+        assignmentId = assignment.getId();
+
+        List<AssignmentQuestion> questionList = new ArrayList<>(questions);
+        for (int i = 0; i < questions; i++) {
+            AssignmentQuestion question = new AssignmentQuestion();
+            question.setAssignment(assignment);
+            question.setQuestion("Câu hỏi " + i);
+            question.setOptions("[\"A\",\"B\",\"C\",\"D\"]");
+            question.setCorrectAnswer("A");
+            question.setQuestionType("MCQ");
+            question.setOrderIndex(i);
+            questionList.add(question);
+        }
+        questionList = context.getBean(AssignmentQuestionRepository.class).saveAll(questionList);
+
+        Map<String, String> answers = new LinkedHashMap<>();
+        for (int i = 0; i < questionList.size(); i++) {
+            answers.put(questionList.get(i).getId().toString(), i % 2 == 0 ? "A" : "B");
+        }
+        answersJson = context.getBean(ObjectMapper.class).writeValueAsString(answers);
+
+        BenchmarkApplication.authenticateAs(student);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public AssignmentSubmission submitAndGrade() {
+        AssignmentSubmission submission = new AssignmentSubmission();
+        submission.setContent(answersJson);
+        return submissionService.submitAssignment(assignmentId, submission);
+    }
+}
@@ -0,0 +1,75 @@
+package com.hrmanagement.benchmark;
+
+import com.hrmanagement.model.User;
+import com.hrmanagement.repository.UserRepository;
+import com.hrmanagement.security.jwt.JwtTokenProvider;
+import com.hrmanagement.security.services.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Đường xác thực JWT của JwtAuthenticationFilter:
+ * - legacyValidateThenExtract: cách cũ (tạo key + parser mỗi lần, verify 2 lần mỗi request)
+ * - parseOnce: key/parser dựng sẵn, verify 1 lần, không cache
+ * - parseClaimsCached: JwtTokenProvider.parseClaims với token đã verify gần đây
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtBenchmark {
+
+    private ConfigurableApplicationContext context;
+    private JwtTokenProvider tokenProvider;
+    private UserPrincipal principal;
+    private String secret;
+    private JwtParser prebuiltParser;
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        tokenProvider = context.getBean(JwtTokenProvider.class);
+        secret = context.getEnvironment().getRequiredProperty("jwt.secret");
+        prebuiltParser = Jwts.parser().verifyWith(Keys.hmacShaKeyFor(secret.getBytes())).build();
+
+        User user = BenchmarkApplication.createUsers(context.getBean(UserRepository.class), "student", 1).get(0);
+        principal = UserPrincipal.of(user);
+        token = tokenProvider.generateToken(principal);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken(principal);
+    }
+
+    @Benchmark
+    public String legacyValidateThenExtract() {
+        Jwts.parser().verifyWith(Keys.hmacShaKeyFor(secret.getBytes())).build().parseSignedClaims(token);
+        return Jwts.parser().verifyWith(Keys.hmacShaKeyFor(secret.getBytes())).build()
+                .parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String parseOnce() {
+        return prebuiltParser.parseSignedClaims(token).getPayload().getSubject();
+    }
+
+    @Benchmark
+    public String parseClaimsCached() {
+        Claims claims = tokenProvider.parseClaims(token);
+        return claims.getSubject();
+    }
+}
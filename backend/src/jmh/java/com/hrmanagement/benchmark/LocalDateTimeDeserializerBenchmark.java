@@ -0,0 +1,96 @@
+package com.hrmanagement.benchmark;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.hrmanagement.config.LenientLocalDateTimeDeserializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Deserialize hàng loạt LocalDateTime qua ObjectMapper của JacksonConfig
+ * (giống một lần import nhiều sự kiện lịch), với các dạng chuỗi mà frontend gửi lên.
+ * impl=legacy: cùng ObjectMapper nhưng luôn đi qua logic cũ (regex + split) để so sánh.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class LocalDateTimeDeserializerBenchmark {
+
+    private static final TypeReference<List<LocalDateTime>> LIST_TYPE = new TypeReference<>() {};
+
+    @Param({"1000"})
+    public int events;
+
+    @Param({"plain", "millis", "utc", "offset", "mixed"})
+    public String shape;
+
+    @Param({"fast", "legacy"})
+    public String impl;
+
+    private ConfigurableApplicationContext context;
+    private ObjectMapper objectMapper;
+    private String json;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        objectMapper = context.getBean(ObjectMapper.class);
+        if ("legacy".equals(impl)) {
+            SimpleModule legacyModule = new SimpleModule();
+            legacyModule.addDeserializer(LocalDateTime.class,
+                    new LegacyOnlyDeserializer(DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss")));
+            objectMapper = objectMapper.copy().registerModule(legacyModule);
+        }
+
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < events; i++) {
+            if (i > 0) sb.append(',');
+            sb.append('"').append(format(i)).append('"');
+        }
+        json = sb.append(']').toString();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    private String format(int i) {
+        String base = String.format("2024-%02d-%02dT%02d:%02d:%02d", i % 12 + 1, i % 28 + 1, i % 24, i % 60, (i * 7) % 60);
+        String current = "mixed".equals(shape) ? List.of("plain", "millis", "utc", "offset").get(i % 4) : shape;
+        return switch (current) {
+            case "millis" -> base + ".123";
+            case "utc" -> base + ".000Z";
+            case "offset" -> base + "+07:00";
+            default -> base;
+        };
+    }
+
+    @Benchmark
+    public List<LocalDateTime> deserialize() throws Exception {
+        return objectMapper.readValue(json, LIST_TYPE);
+    }
+
+    static final class LegacyOnlyDeserializer extends LenientLocalDateTimeDeserializer {
+
+        LegacyOnlyDeserializer(DateTimeFormatter formatter) {
+            super(formatter);
+        }
+
+        @Override
+        public LocalDateTime deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            return legacyDeserialize(p, ctxt);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.hrmanagement.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.hrmanagement.config.LenientLocalDateTimeDeserializer;
+
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+import java.util.TimeZone;
+
+/**
+ * Kiểm tra LenientLocalDateTimeDeserializer (đường đọc nhanh parseFast) cho cùng kết quả với legacyDeserialize:
+ * cùng LocalDateTime, hoặc cả hai cùng báo lỗi. Chạy với nhiều múi giờ hệ thống vì chuỗi có Z / offset
+ * được đổi sang giờ hệ thống.
+ * Gồm các dạng đọc nhanh, các chuỗi phải rơi về logic cũ (offset không có ':', zone id, phần lẻ > 9 chữ số,
+ * chỉ có ngày, ngày / giờ không hợp lệ...) và chuỗi ngẫu nhiên theo các dạng đọc nhanh.
+ *
+ * Chạy: mvn -Pbenchmark compile exec:java -Dexec.mainClass=com.hrmanagement.benchmark.LocalDateTimeDeserializerEquivalenceCheck
+ * Thoát với mã 1 nếu có chuỗi cho kết quả khác nhau.
+ */
+public final class LocalDateTimeDeserializerEquivalenceCheck {
+
+    private static final String DATETIME_FORMAT = "yyyy-MM-dd'T'HH:mm:ss";
+    private static final int RANDOM_SAMPLES = 20_000;
+
+    private static final List<String> ZONES = List.of("UTC", "Asia/Ho_Chi_Minh", "America/New_York", "Asia/Kolkata");
+
+    private static final List<String> FIXED_INPUTS = List.of(
+            // Dạng đọc nhanh
+            "2024-11-17T14:00:00",
+            "2024-11-17T14:00:00.1",
+            "2024-11-17T14:00:00.000",
+            "2024-11-17T14:00:00.123456",
+            "2024-11-17T14:00:00.123456789",
+            "2024-11-17T14:00:00Z",
+            "2024-11-17T14:00:00.000Z",
+            "2024-11-17T14:00:00.5Z",
+            "2024-11-17T14:00:00.123456789Z",
+            "2024-11-17T14:00:00+07:00",
+            "2024-11-17T14:00:00.250+07:00",
+            "2024-11-17T14:00:00-05:30",
+            "2024-11-17T14:00:00+00:00",
+            "2024-11-17T14:00:00-00:00",
+            "2024-11-17T23:59:59+18:00",
+            "2024-11-17T00:00:00-18:00",
+            "2024-02-29T12:00:00",
+            "2024-03-10T07:30:00Z",
+            "2024-11-03T06:30:00Z",
+            "0001-01-01T00:00:00",
+            "9999-12-31T23:59:59",
+            // Offset / zone rơi về logic cũ
+            "2024-11-17T14:00:00+0700",
+            "2024-11-17T14:00:00+07",
+            "2024-11-17T14:00:00+18:30",
+            "2024-11-17T14:00:00+07:60",
+            "2024-11-17T14:00:00z",
+            "2024-11-17T14:00:00ZZ",
+            "2024-11-17T14:00:00Z+07:00",
+            "2024-11-17T14:00:00+07:00[Asia/Ho_Chi_Minh]",
+            "2024-11-17T14:00:00[Asia/Ho_Chi_Minh]",
+            "2024-11-17T14:00:00 UTC",
+            // Phần lẻ của giây rơi về logic cũ
+            "2024-11-17T14:00:00.",
+            "2024-11-17T14:00:00.Z",
+            "2024-11-17T14:00:00.1234567890",
+            "2024-11-17T14:00:00.1234567890Z",
+            "2024-11-17T14:00:00.12a",
+            "2024-11-17T14:00:00,123",
+            // Chỉ có ngày / thiếu giây / sai dấu phân cách
+            "2024-11-17",
+            "2024-11-17T14:00",
+            "2024-11-17T14",
+            "2024-11-17 14:00:00",
+            "2024/11/17T14:00:00",
+            "20241117T140000",
+            // Ngày / giờ không hợp lệ
+            "2023-02-29T12:00:00",
+            "2024-02-30T12:00:00",
+            "2024-13-01T00:00:00",
+            "2024-00-10T00:00:00",
+            "2024-11-00T00:00:00",
+            "2024-11-17T24:00:00",
+            "2024-11-17T23:60:00",
+            "2024-11-17T23:59:60",
+            "0000-01-01T00:00:00",
+            "2024-11-17T14:00:00Z ",
+            " 2024-11-17T14:00:00",
+            "",
+            "not a date"
+    );
+
+    private LocalDateTimeDeserializerEquivalenceCheck() {}
+
+    public static void main(String[] args) {
+        DateTimeFormatter formatter = DateTimeFormatter.ofPattern(DATETIME_FORMAT);
+        ObjectMapper fast = mapper(new LenientLocalDateTimeDeserializer(formatter));
+        ObjectMapper legacy = mapper(new LocalDateTimeDeserializerBenchmark.LegacyOnlyDeserializer(formatter));
+
+        List<String> inputs = new ArrayList<>(FIXED_INPUTS);
+        Random random = new Random(42);
+        for (int i = 0; i < RANDOM_SAMPLES; i++) {
+            inputs.add(randomInput(random));
+        }
+
+        TimeZone originalZone = TimeZone.getDefault();
+        int mismatches = 0;
+        try {
+            for (String zone : ZONES) {
+                TimeZone.setDefault(TimeZone.getTimeZone(zone));
+                for (String input : inputs) {
+                    String expected = read(legacy, input);
+                    String actual = read(fast, input);
+                    if (!Objects.equals(expected, actual)) {
+                        mismatches++;
+                        System.out.printf("KHÁC [%s] \"%s\": legacy=%s, fast=%s%n", zone, input, expected, actual);
+                    }
+                }
+            }
+        } finally {
+            TimeZone.setDefault(originalZone);
+        }
+
+        System.out.printf("%d chuỗi x %d múi giờ, %d kết quả khác nhau%n", inputs.size(), ZONES.size(), mismatches);
+        if (mismatches > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static ObjectMapper mapper(LenientLocalDateTimeDeserializer deserializer) {
+        JavaTimeModule javaTimeModule = new JavaTimeModule();
+        javaTimeModule.addDeserializer(LocalDateTime.class, deserializer);
+        return new ObjectMapper()
+                .registerModule(javaTimeModule)
+                .disable(DeserializationFeature.ADJUST_DATES_TO_CONTEXT_TIME_ZONE);
+    }
+
+    // Kết quả dạng chuỗi để so sánh được cả trường hợp lỗi (chỉ so loại lỗi, không so message)
+    private static String read(ObjectMapper mapper, String input) {
+        try {
+            return String.valueOf(mapper.readValue(mapper.writeValueAsString(input), LocalDateTime.class));
+        } catch (Exception e) {
+            return "lỗi " + e.getClass().getSimpleName();
+        }
+    }
+
+    // Chuỗi theo các dạng đọc nhanh, thỉnh thoảng có thành phần vượt giới hạn (ngày 31 của tháng 30 ngày, giờ 24...)
+    private static String randomInput(Random random) {
+        String base = String.format("%04d-%02d-%02dT%02d:%02d:%02d",
+                1 + random.nextInt(9999), 1 + random.nextInt(13), 1 + random.nextInt(31),
+                random.nextInt(25), random.nextInt(61), random.nextInt(61));
+        String fraction = random.nextBoolean() ? "" : "." + "123456789012".substring(0, 1 + random.nextInt(11));
+        return base + fraction + switch (random.nextInt(4)) {
+            case 0 -> "";
+            case 1 -> "Z";
+            default -> String.format("%c%02d:%02d", random.nextBoolean() ? '+' : '-', random.nextInt(20), random.nextInt(61));
+        };
+    }
+}
@@ -0,0 +1,107 @@
+package com.hrmanagement.benchmark;
+
+import com.hrmanagement.model.Lesson;
+import com.hrmanagement.model.LessonProgress;
+import com.hrmanagement.model.User;
+import com.hrmanagement.payload.response.StudentRankResponse;
+import com.hrmanagement.repository.LessonProgressRepository;
+import com.hrmanagement.repository.LessonRepository;
+import com.hrmanagement.repository.UserRepository;
+import com.hrmanagement.service.RankingService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bảng xếp hạng học sinh (RankingService):
+ * - rebuild: nạp lại toàn bộ và tính số sao từ DB
+ * - topPage / studentRank: đọc từ bảng xếp hạng đã có trong bộ nhớ
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class RankingBenchmark {
+
+    @Param({"1000"})
+    public int students;
+
+    @Param({"10"})
+    public int lessons;
+
+    private ConfigurableApplicationContext context;
+    private RankingService rankingService;
+    private List<Long> studentIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        rankingService = context.getBean(RankingService.class);
+        UserRepository userRepository = context.getBean(UserRepository.class);
+
+        User teacher = BenchmarkApplication.createUsers(userRepository, "teacher", 1).get(0);
+        List<Lesson> lessonList = new ArrayList<>(lessons);
+        for (int i = 0; i < lessons; i++) {
+            Lesson lesson = new Lesson();
+            lesson.setTeacher(teacher);
+            lesson.setTitle("Bài học " + i);
+            lesson.setTotalDuration(600);
+            lessonList.add(lesson);
+        }
+        lessonList = context.getBean(LessonRepository.class).saveAll(lessonList);
+
+        List<User> studentList = BenchmarkApplication.createUsers(userRepository, "student", students);
+        studentIds = studentList.stream().map(User::getId).toList();
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        LessonProgressRepository progressRepository = context.getBean(LessonProgressRepository.class);
+        List<LessonProgress> batch = new ArrayList<>();
+        for (User student : studentList) {
+            for (Lesson lesson : lessonList) {
+                LessonProgress progress = new LessonProgress();
+                progress.setStudent(student);
+                progress.setLesson(lesson);
+                progress.setVideoProgressSeconds(random.nextInt(601));
+                progress.setCheckpointsCompleted(random.nextInt(4));
+                progress.setTotalCheckpoints(3);
+                progress.setQuizScore(random.nextDouble(100));
+                progress.setCompleted(random.nextInt(10) == 0);
+                batch.add(progress);
+            }
+            if (batch.size() >= 5000) {
+                progressRepository.saveAll(batch);
+                batch.clear();
+            }
+        }
+        progressRepository.saveAll(batch);
+
+        rankingService.getRankingPage(0, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<StudentRankResponse> rebuild() {
+        rankingService.invalidate();
+        return rankingService.getRankingPage(0, 50);
+    }
+
+    @Benchmark
+    public List<StudentRankResponse> topPage() {
+        return rankingService.getRankingPage(0, 50);
+    }
+
+    @Benchmark
+    public StudentRankResponse studentRank() {
+        Long studentId = studentIds.get(ThreadLocalRandom.current().nextInt(studentIds.size()));
+        return rankingService.getStudentRank(studentId);
+    }
+}
@@ -0,0 +1,76 @@
+package com.hrmanagement.benchmark;
+
+import com.hrmanagement.model.StudyTime;
+import com.hrmanagement.model.User;
+import com.hrmanagement.repository.StudyTimeRepository;
+import com.hrmanagement.repository.UserRepository;
+import com.hrmanagement.service.StudyTimeService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thống kê thời gian học của một học sinh (StudyTimeService.getStudyStats)
+ * với số ngày có dữ liệu cấu hình được, trên nền nhiều học sinh khác.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class StudyStatsBenchmark {
+
+    // Tổng thời gian học một ngày: 5 phút .. 3 giờ (total_seconds, đơn vị giây)
+    private static final int MIN_DAILY_SECONDS = 5 * 60;
+    private static final int MAX_DAILY_SECONDS = 3 * 60 * 60;
+
+    @Param({"30", "365"})
+    public int days;
+
+    @Param({"100"})
+    public int students;
+
+    private ConfigurableApplicationContext context;
+    private StudyTimeService studyTimeService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start();
+        studyTimeService = context.getBean(StudyTimeService.class);
+        StudyTimeRepository studyTimeRepository = context.getBean(StudyTimeRepository.class);
+
+        List<User> studentList = BenchmarkApplication.createUsers(context.getBean(UserRepository.class), "student", students);
+        // Seed cố định để các lần chạy so sánh được với nhau
+        Random random = new Random(42);
+        LocalDate today = LocalDate.now();
+        for (User student : studentList) {
+            List<StudyTime> rows = new ArrayList<>(days);
+            for (int d = 0; d < days; d++) {
+                StudyTime studyTime = new StudyTime();
+                studyTime.setStudent(student);
+                studyTime.setDate(today.minusDays(d));
+                studyTime.setTotalSeconds(MIN_DAILY_SECONDS + random.nextInt(MAX_DAILY_SECONDS - MIN_DAILY_SECONDS));
+                rows.add(studyTime);
+            }
+            studyTimeRepository.saveAll(rows);
+        }
+
+        BenchmarkApplication.authenticateAs(studentList.get(0));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Map<String, Object> studyStats() {
+        return studyTimeService.getStudyStats();
+    }
+}
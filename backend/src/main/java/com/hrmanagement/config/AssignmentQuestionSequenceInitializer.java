@@ -0,0 +1,45 @@
+package com.hrmanagement.config;
+
+import com.hrmanagement.model.AssignmentQuestion;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Căn sequence id của assignment_questions theo dữ liệu cũ: các câu hỏi tạo trước đây dùng IDENTITY,
+ * còn sequence do ddl-auto tạo bắt đầu từ 1 nên sẽ cấp trùng id.
+ * Hibernate (pooled optimizer) dùng giá trị nextval làm id lớn nhất của khối, id đầu khối = nextval - allocationSize + 1,
+ * nên chỉ cần đặt lại khi id đầu khối tiếp theo không lớn hơn MAX(id). Chạy lại nhiều lần vẫn an toàn.
+ */
+@Component
+@Order(0)
+public class AssignmentQuestionSequenceInitializer implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(AssignmentQuestionSequenceInitializer.class);
+
+    private static final String SEQUENCE = AssignmentQuestion.ID_SEQUENCE;
+    private static final int ALLOCATION_SIZE = AssignmentQuestion.ID_ALLOCATION_SIZE;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void run(String... args) {
+        try {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM assignment_questions", Long.class);
+            // Lấy 1 giá trị (bỏ phí 1 khối id) để biết vị trí hiện tại của sequence
+            Long next = jdbcTemplate.queryForObject("SELECT nextval('" + SEQUENCE + "')", Long.class);
+            if (maxId == null || next == null || next - ALLOCATION_SIZE + 1 > maxId) return;
+
+            long restartWith = maxId + ALLOCATION_SIZE;
+            jdbcTemplate.execute("ALTER SEQUENCE " + SEQUENCE + " RESTART WITH " + restartWith);
+            logger.info("✅ Đã căn sequence {} theo id câu hỏi lớn nhất {} (tiếp tục từ {}).", SEQUENCE, maxId, maxId + 1);
+        } catch (Exception e) {
+            logger.error("❌ Không thể căn sequence {}: {}", SEQUENCE, e.getMessage());
+        }
+    }
+}
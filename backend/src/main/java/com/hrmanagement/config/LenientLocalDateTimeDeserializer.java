@@ -0,0 +1,170 @@
+package com.hrmanagement.config;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.datatype.jsr310.deser.LocalDateTimeDeserializer;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.time.Year;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.regex.Pattern;
+
+/**
+ * Deserializer LocalDateTime chấp nhận các dạng frontend gửi lên:
+ * "2024-11-17T14:00:00", "2024-11-17T14:00:00.000", "2024-11-17T14:00:00.000Z", "2024-11-17T14:00:00+07:00".
+ * Chuỗi có múi giờ (Z / offset) được đổi sang giờ hệ thống; chuỗi không múi giờ bỏ phần mili giây.
+ *
+ * Các dạng trên được đọc thẳng từ buffer ký tự của parser trong 1 lần duyệt (không regex, không split).
+ * Mọi trường hợp khác đi qua legacyDeserialize (logic cũ) nên kết quả không đổi.
+ */
+public class LenientLocalDateTimeDeserializer extends LocalDateTimeDeserializer {
+
+    private static final Pattern OFFSET_SUFFIX = Pattern.compile(".*[+-]\\d{2}:\\d{2}$");
+    private static final int MAX_OFFSET_SECONDS = 18 * 3600;
+
+    private final DateTimeFormatter formatter;
+
+    public LenientLocalDateTimeDeserializer(DateTimeFormatter formatter) {
+        super(formatter);
+        this.formatter = formatter;
+    }
+
+    @Override
+    public LocalDateTime deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.hasToken(JsonToken.VALUE_STRING)) {
+            LocalDateTime parsed = parseFast(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+            if (parsed != null) {
+                return parsed;
+            }
+        }
+        return legacyDeserialize(p, ctxt);
+    }
+
+    /**
+     * Đọc các dạng phổ biến, trả null nếu chuỗi không đúng hẳn một trong các dạng đó
+     * (kể cả ngày/giờ không hợp lệ) để logic cũ tự xử lý.
+     */
+    static LocalDateTime parseFast(char[] buf, int start, int len) {
+        if (len < 19) return null;
+        int end = start + len;
+
+        int year = digits(buf, start, 4);
+        int month = digits(buf, start + 5, 2);
+        int day = digits(buf, start + 8, 2);
+        int hour = digits(buf, start + 11, 2);
+        int minute = digits(buf, start + 14, 2);
+        int second = digits(buf, start + 17, 2);
+        if (year < 0 || month < 0 || day < 0 || hour < 0 || minute < 0 || second < 0
+                || buf[start + 4] != '-' || buf[start + 7] != '-' || buf[start + 10] != 'T'
+                || buf[start + 13] != ':' || buf[start + 16] != ':') {
+            return null;
+        }
+        if (year < 1 || month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))
+                || hour > 23 || minute > 59 || second > 59) {
+            return null;
+        }
+
+        // Phần lẻ của giây: 1-9 chữ số
+        int i = start + 19;
+        int nanos = 0;
+        if (i < end && buf[i] == '.') {
+            int fractionStart = ++i;
+            while (i < end && i - fractionStart < 10 && isDigit(buf[i])) {
+                nanos = nanos * 10 + (buf[i] - '0');
+                i++;
+            }
+            int fractionDigits = i - fractionStart;
+            if (fractionDigits == 0 || fractionDigits > 9) return null;
+            for (int k = fractionDigits; k < 9; k++) {
+                nanos *= 10;
+            }
+        }
+
+        // Không có múi giờ: bỏ phần lẻ của giây (giống split(".") trước đây)
+        if (i == end) {
+            return LocalDateTime.of(year, month, day, hour, minute, second);
+        }
+
+        int offsetSeconds;
+        if (buf[i] == 'Z' && i + 1 == end) {
+            offsetSeconds = 0;
+        } else if ((buf[i] == '+' || buf[i] == '-') && end - i == 6 && buf[i + 3] == ':') {
+            int offsetHours = digits(buf, i + 1, 2);
+            int offsetMinutes = digits(buf, i + 4, 2);
+            if (offsetHours < 0 || offsetMinutes < 0 || offsetMinutes > 59) return null;
+            offsetSeconds = offsetHours * 3600 + offsetMinutes * 60;
+            if (offsetSeconds > MAX_OFFSET_SECONDS) return null;
+            if (buf[i] == '-') offsetSeconds = -offsetSeconds;
+        } else {
+            return null;
+        }
+
+        long epochSecond = LocalDate.of(year, month, day).toEpochDay() * 86400L
+                + hour * 3600L + minute * 60L + second - offsetSeconds;
+        return LocalDateTime.ofInstant(Instant.ofEpochSecond(epochSecond, nanos), ZoneId.systemDefault());
+    }
+
+    private static int digits(char[] buf, int from, int count) {
+        int value = 0;
+        for (int i = from; i < from + count; i++) {
+            char c = buf[i];
+            if (!isDigit(c)) return -1;
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Logic cũ, giữ nguyên cho các chuỗi không thuộc dạng phổ biến
+     */
+    protected LocalDateTime legacyDeserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        String dateTimeString = p.getText();
+        try {
+            // Handle ISO format with timezone (e.g., "2024-11-17T14:00:00.000Z" or "2024-11-17T14:00:00Z")
+            if (dateTimeString.contains("Z") || dateTimeString.endsWith("+00:00") || OFFSET_SUFFIX.matcher(dateTimeString).matches()) {
+                // Parse ISO string with timezone and convert to local timezone
+                // Normalize format: ensure Z at end or proper timezone offset
+                String normalized = dateTimeString;
+                if (normalized.contains("Z")) {
+                    normalized = normalized.replace("Z", "");
+                    if (!normalized.contains(".")) {
+                        normalized += ".000";
+                    }
+                    normalized += "Z";
+                }
+                Instant instant = Instant.parse(normalized);
+                return LocalDateTime.ofInstant(instant, ZoneId.systemDefault());
+            }
+            // Handle format without timezone (e.g., "2024-11-17T14:00:00" or "2024-11-17T14:00:00.000")
+            if (dateTimeString.contains("T")) {
+                // Remove milliseconds if present
+                String cleanString = dateTimeString.split("\\.")[0];
+                // Ensure format is "YYYY-MM-DDTHH:mm:ss"
+                if (cleanString.length() == 19) {
+                    return LocalDateTime.parse(cleanString, formatter);
+                }
+                // Try parsing with default formatter
+                return LocalDateTime.parse(cleanString);
+            }
+            // Fallback to default parsing
+            return super.deserialize(p, ctxt);
+        } catch (Exception e) {
+            // If all parsing fails, try default
+            try {
+                return super.deserialize(p, ctxt);
+            } catch (Exception e2) {
+                throw new IOException("Failed to parse LocalDateTime: " + dateTimeString, e2);
+            }
+        }
+    }
+}
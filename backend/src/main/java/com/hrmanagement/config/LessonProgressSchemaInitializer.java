@@ -0,0 +1,88 @@
+package com.hrmanagement.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.*;
+
+/**
+ * Thêm ràng buộc unique (student_id, lesson_id) cho lesson_progress trên DB cũ.
+ * ddl-auto=update bỏ qua lỗi khi thêm ràng buộc nếu đã có dòng trùng (trước đây tiến trình được tạo bằng
+ * SELECT rồi INSERT nên 2 request song song có thể tạo 2 dòng), nên ở đây gộp các dòng trùng
+ * vào dòng có id nhỏ nhất (lấy giá trị lớn nhất của từng cột) rồi mới thêm ràng buộc.
+ */
+@Component
+@Order(0)
+public class LessonProgressSchemaInitializer implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LessonProgressSchemaInitializer.class);
+
+    private static final String TABLE = "lesson_progress";
+    private static final Set<String> UNIQUE_COLUMNS = Set.of("student_id", "lesson_id");
+
+    private static final String SAME_ROW = "FROM lesson_progress d WHERE d.student_id = p.student_id AND d.lesson_id = p.lesson_id";
+
+    private static final String MERGE_DUPLICATES_SQL =
+            "UPDATE lesson_progress p SET " +
+            "video_progress_seconds = (SELECT MAX(d.video_progress_seconds) " + SAME_ROW + "), " +
+            "quiz_score = (SELECT MAX(d.quiz_score) " + SAME_ROW + "), " +
+            "checkpoints_completed = (SELECT MAX(d.checkpoints_completed) " + SAME_ROW + "), " +
+            "total_checkpoints = (SELECT MAX(d.total_checkpoints) " + SAME_ROW + "), " +
+            "completed = (SELECT MAX(CASE WHEN d.completed THEN 1 ELSE 0 END) " + SAME_ROW + ") = 1 " +
+            "WHERE p.id IN (SELECT MIN(id) FROM lesson_progress GROUP BY student_id, lesson_id HAVING COUNT(*) > 1)";
+
+    private static final String DELETE_DUPLICATES_SQL =
+            "DELETE FROM lesson_progress WHERE id NOT IN (SELECT MIN(id) FROM lesson_progress GROUP BY student_id, lesson_id)";
+
+    private static final String ADD_CONSTRAINT_SQL =
+            "ALTER TABLE lesson_progress ADD CONSTRAINT uk_lesson_progress_student_lesson UNIQUE (student_id, lesson_id)";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Override
+    public void run(String... args) {
+        try {
+            if (hasUniqueStudentLesson()) return;
+
+            logger.info("🔧 Thêm ràng buộc unique (student_id, lesson_id) cho bảng lesson_progress...");
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                int merged = jdbcTemplate.update(MERGE_DUPLICATES_SQL);
+                int deleted = jdbcTemplate.update(DELETE_DUPLICATES_SQL);
+                jdbcTemplate.execute(ADD_CONSTRAINT_SQL);
+                logger.info("✅ Đã gộp {} tiến trình bị trùng ({} dòng bị xóa) và thêm ràng buộc unique.", merged, deleted);
+            });
+        } catch (Exception e) {
+            logger.error("❌ Không thể thêm ràng buộc unique cho lesson_progress: {}", e.getMessage());
+        }
+    }
+
+    private boolean hasUniqueStudentLesson() {
+        Boolean found = jdbcTemplate.execute((java.sql.Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            Map<String, Set<String>> indexColumns = new HashMap<>();
+            try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), null, TABLE, true, false)) {
+                while (rs.next()) {
+                    String indexName = rs.getString("INDEX_NAME");
+                    String column = rs.getString("COLUMN_NAME");
+                    if (indexName == null || column == null) continue;
+                    indexColumns.computeIfAbsent(indexName, k -> new HashSet<>()).add(column.toLowerCase(Locale.ROOT));
+                }
+            }
+            return indexColumns.containsValue(UNIQUE_COLUMNS);
+        });
+        return Boolean.TRUE.equals(found);
+    }
+}
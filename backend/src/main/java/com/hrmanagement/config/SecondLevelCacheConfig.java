@@ -0,0 +1,86 @@
+package com.hrmanagement.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import com.hrmanagement.model.AssignmentQuestion;
+import com.hrmanagement.model.FinalQuiz;
+import com.hrmanagement.model.Lesson;
+import com.hrmanagement.model.LessonCheckpoint;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * CacheManager (Caffeine JCache) cho second-level cache của Hibernate.
+ * Mọi region được tạo sẵn với giới hạn kích thước + thời gian sống (missing_cache_strategy=fail nên
+ * region chưa khai báo ở đây sẽ báo lỗi lúc khởi động thay vì âm thầm tạo cache không giới hạn).
+ */
+@Configuration
+public class SecondLevelCacheConfig {
+
+    // Region của entity có @Cache là tên class đầy đủ
+    public static final List<String> ENTITY_REGIONS = List.of(
+            Lesson.class.getName(),
+            LessonCheckpoint.class.getName(),
+            FinalQuiz.class.getName(),
+            AssignmentQuestion.class.getName());
+
+    public static final String QUERY_REGION = RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME;
+    public static final String TIMESTAMPS_REGION = RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME;
+
+    @Value("${content.l2-cache.max-entries:10000}")
+    private long maxEntries;
+
+    @Value("${content.l2-cache.query-max-entries:5000}")
+    private long queryMaxEntries;
+
+    @Value("${content.l2-cache.ttl-seconds:3600}")
+    private long ttlSeconds;
+
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager() {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName()).getCacheManager();
+        for (String region : ENTITY_REGIONS) {
+            createIfAbsent(cacheManager, region, boundedConfiguration(maxEntries));
+        }
+        createIfAbsent(cacheManager, QUERY_REGION, boundedConfiguration(queryMaxEntries));
+        // Mỗi bảng 1 dòng; không được bị xóa trước kết quả query nên không giới hạn / không hết hạn
+        createIfAbsent(cacheManager, TIMESTAMPS_REGION, baseConfiguration());
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+    }
+
+    private CaffeineConfiguration<Object, Object> boundedConfiguration(long maximumSize) {
+        CaffeineConfiguration<Object, Object> configuration = baseConfiguration();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+        return configuration;
+    }
+
+    // Lưu tham chiếu (cache entry của Hibernate là dữ liệu đã tách khỏi entity, không cần copy)
+    private static CaffeineConfiguration<Object, Object> baseConfiguration() {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        return configuration;
+    }
+
+    private static void createIfAbsent(CacheManager cacheManager, String name, CaffeineConfiguration<Object, Object> configuration) {
+        if (cacheManager.getCache(name) == null) {
+            cacheManager.createCache(name, configuration);
+        }
+    }
+}
@@ -66,6 +66,8 @@ public class SecurityConfig {
         config.setAllowedMethods(List.of("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         config.addAllowedHeader("*");
         config.addExposedHeader("Authorization");
+        config.addExposedHeader("X-Total-Count");
+        config.addExposedHeader("X-Next-Cursor");
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
         source.registerCorsConfiguration("/**", config);
@@ -86,6 +88,8 @@ public class SecurityConfig {
                 .requestMatchers("/health", "/api/health").permitAll()
                 .requestMatchers("/ai/**", "/api/ai/**").permitAll()
                 .requestMatchers("/error").permitAll() // Cho phép error endpoint
+                // Lượt dispatch ASYNC của response dạng stream (request gốc đã được kiểm tra quyền)
+                .dispatcherTypeMatchers(jakarta.servlet.DispatcherType.ASYNC).permitAll()
                 // 🌐 Cho phép GET lessons cho authenticated users
                 .requestMatchers(org.springframework.http.HttpMethod.GET, "/api/lessons/**").authenticated()
                 // 🌐 Cho phép GET assignments/questions cho authenticated users
@@ -97,6 +101,7 @@ public class SecurityConfig {
                 .requestMatchers("/api/student/**").hasAnyRole("STUDENT", "ADMIN")
                 // 🔒 Admin endpoints
                 .requestMatchers("/api/admin/**").hasRole("ADMIN")
+                .requestMatchers("/actuator/**").hasRole("ADMIN")
                 // 🔒 User endpoints cần xác thực
                 .requestMatchers("/user/**", "/api/user/**").authenticated()
                 // 🔒 Các endpoint còn lại cần xác thực
@@ -0,0 +1,113 @@
+package com.hrmanagement.config;
+
+import com.hrmanagement.model.StudyTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.CommandLineRunner;
+import org.springframework.core.annotation.Order;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.*;
+
+/**
+ * Nâng cấp bảng study_time trên DB cũ:
+ * 1. Ràng buộc unique (student_id, date): ddl-auto=update bỏ qua lỗi khi thêm ràng buộc nếu đã có dòng trùng,
+ *    nên ở đây gộp các dòng trùng (cộng dồn thời gian vào dòng có id nhỏ nhất) rồi mới thêm ràng buộc.
+ * 2. Chuyển đơn vị: total_minutes cũ lẫn phút (< 10000) và giây, chuyển hết sang total_seconds
+ *    và đánh dấu unit_version. Chỉ xử lý dòng chưa đánh dấu nên chạy lại nhiều lần vẫn an toàn.
+ */
+@Component
+@Order(0)
+public class StudyTimeSchemaInitializer implements CommandLineRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(StudyTimeSchemaInitializer.class);
+
+    private static final String TABLE = "study_time";
+    private static final Set<String> UNIQUE_COLUMNS = Set.of("student_id", "date");
+
+    // Nếu tất cả dòng trùng đều là dữ liệu cũ (phút, < 10000) thì cộng theo phút, ngược lại đổi hết sang giây rồi cộng
+    private static final String MERGE_DUPLICATES_SQL =
+            "UPDATE study_time t SET total_minutes = (" +
+            "  SELECT CASE WHEN MAX(d.total_minutes) < 10000 THEN SUM(d.total_minutes) " +
+            "  ELSE SUM(CASE WHEN d.total_minutes < 10000 THEN d.total_minutes * 60 ELSE d.total_minutes END) END " +
+            "  FROM study_time d WHERE d.student_id = t.student_id AND d.date = t.date) " +
+            "WHERE t.id IN (SELECT MIN(id) FROM study_time GROUP BY student_id, date HAVING COUNT(*) > 1)";
+
+    private static final String DELETE_DUPLICATES_SQL =
+            "DELETE FROM study_time WHERE id NOT IN (SELECT MIN(id) FROM study_time GROUP BY student_id, date)";
+
+    private static final String ADD_CONSTRAINT_SQL =
+            "ALTER TABLE study_time ADD CONSTRAINT uk_study_time_student_date UNIQUE (student_id, date)";
+
+    private static final String LEGACY_SECONDS =
+            "CASE WHEN COALESCE(total_minutes, 0) < 10000 THEN COALESCE(total_minutes, 0) * 60 ELSE total_minutes END";
+
+    private static final String MIGRATE_UNIT_SQL =
+            "UPDATE study_time SET total_seconds = " + LEGACY_SECONDS + ", " +
+            "total_minutes = (" + LEGACY_SECONDS + ") / 60, " +
+            "unit_version = " + StudyTime.CURRENT_UNIT_VERSION + " " +
+            "WHERE unit_version IS NULL OR unit_version < " + StudyTime.CURRENT_UNIT_VERSION;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Override
+    public void run(String... args) {
+        addUniqueConstraint();
+        migrateUnits();
+    }
+
+    private void addUniqueConstraint() {
+        try {
+            if (hasUniqueStudentDate()) return;
+
+            logger.info("🔧 Thêm ràng buộc unique (student_id, date) cho bảng study_time...");
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+                int merged = jdbcTemplate.update(MERGE_DUPLICATES_SQL);
+                int deleted = jdbcTemplate.update(DELETE_DUPLICATES_SQL);
+                jdbcTemplate.execute(ADD_CONSTRAINT_SQL);
+                logger.info("✅ Đã gộp {} ngày học bị trùng ({} dòng bị xóa) và thêm ràng buộc unique.", merged, deleted);
+            });
+        } catch (Exception e) {
+            logger.error("❌ Không thể thêm ràng buộc unique cho study_time: {}", e.getMessage());
+        }
+    }
+
+    private void migrateUnits() {
+        try {
+            int migrated = jdbcTemplate.update(MIGRATE_UNIT_SQL);
+            if (migrated > 0) {
+                logger.info("✅ Đã chuyển {} dòng study_time sang đơn vị giây (unit_version {}).",
+                        migrated, StudyTime.CURRENT_UNIT_VERSION);
+            }
+        } catch (Exception e) {
+            logger.error("❌ Không thể chuyển đơn vị study_time: {}", e.getMessage());
+        }
+    }
+
+    private boolean hasUniqueStudentDate() {
+        Boolean found = jdbcTemplate.execute((java.sql.Connection connection) -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            Map<String, Set<String>> indexColumns = new HashMap<>();
+            try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), null, TABLE, true, false)) {
+                while (rs.next()) {
+                    String indexName = rs.getString("INDEX_NAME");
+                    String column = rs.getString("COLUMN_NAME");
+                    if (indexName == null || column == null) continue;
+                    indexColumns.computeIfAbsent(indexName, k -> new HashSet<>()).add(column.toLowerCase(Locale.ROOT));
+                }
+            }
+            return indexColumns.containsValue(UNIQUE_COLUMNS);
+        });
+        return Boolean.TRUE.equals(found);
+    }
+}
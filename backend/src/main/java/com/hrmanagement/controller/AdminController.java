@@ -1,12 +1,20 @@
 package com.hrmanagement.controller;
 
 import com.hrmanagement.model.User;
+import com.hrmanagement.payload.response.CacheRegionStatsResponse;
+import com.hrmanagement.service.ExportService;
+import com.hrmanagement.service.SecondLevelCacheStatsService;
 import com.hrmanagement.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
 import java.util.List;
 
 @RestController
@@ -16,6 +24,12 @@ public class AdminController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private SecondLevelCacheStatsService cacheStatsService;
+
     // GET /api/admin/users - Lấy tất cả users (chỉ admin)
     @GetMapping("/users")
     @PreAuthorize("hasRole('ADMIN')")
@@ -31,5 +45,36 @@ public class AdminController {
         userService.deleteUserByAdmin(id);
         return ResponseEntity.ok("Người dùng đã được xóa thành công!");
     }
-}
 
+    // GET /api/admin/cache/stats - Hit / miss của second-level cache theo region (chỉ admin)
+    @GetMapping("/cache/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<CacheRegionStatsResponse>> getCacheStats() {
+        return ResponseEntity.ok(cacheStatsService.getStats());
+    }
+
+    // GET /api/admin/export/:dataset?format=csv|ndjson&gzip=false - Xuất study-time, lesson-progress, assignment-submissions (stream)
+    @GetMapping("/export/{dataset}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<StreamingResponseBody> export(
+            @PathVariable String dataset,
+            @RequestParam(defaultValue = "csv") String format,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        exportService.validate(dataset, format);
+        String normalizedFormat = ExportService.normalizeFormat(format);
+
+        String fileName = dataset + "-" + LocalDate.now().format(DateTimeFormatter.BASIC_ISO_DATE) + "." + normalizedFormat
+                + (gzip ? ".gz" : "");
+        MediaType contentType = gzip
+                ? MediaType.parseMediaType("application/gzip")
+                : ExportService.FORMAT_CSV.equals(normalizedFormat)
+                    ? MediaType.parseMediaType("text/csv;charset=UTF-8")
+                    : MediaType.parseMediaType("application/x-ndjson;charset=UTF-8");
+
+        StreamingResponseBody body = out -> exportService.export(dataset, normalizedFormat, gzip, out);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(contentType)
+                .body(body);
+    }
+}
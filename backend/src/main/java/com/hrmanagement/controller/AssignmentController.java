@@ -122,6 +122,8 @@ public class AssignmentController {
                 questions = new java.util.ArrayList<>();
                 for (Map<String, Object> qMap : questionsList) {
                     AssignmentQuestion q = new AssignmentQuestion();
+                    // id của câu hỏi cũ để giữ nguyên câu hỏi khi sửa (id lạ được coi là câu hỏi mới)
+                    if (qMap.get("id") instanceof Number number) q.setId(number.longValue());
                     if (qMap.get("question") != null) q.setQuestion(qMap.get("question").toString());
                     if (qMap.get("questionType") != null) q.setQuestionType(qMap.get("questionType").toString());
                     if (qMap.get("options") != null) {
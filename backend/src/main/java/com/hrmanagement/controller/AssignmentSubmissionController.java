@@ -1,8 +1,10 @@
 package com.hrmanagement.controller;
 
 import com.hrmanagement.model.AssignmentSubmission;
+import com.hrmanagement.payload.response.SubmissionStatusResponse;
 import com.hrmanagement.service.AssignmentSubmissionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -35,9 +37,20 @@ public class AssignmentSubmissionController {
         }
         
         AssignmentSubmission savedSubmission = submissionService.submitAssignment(id, submission);
+        if (submissionService.isAsyncGrading()) {
+            // Đã lưu bài, điểm sẽ có sau - theo dõi qua /submissions/{submissionId}/status
+            return ResponseEntity.status(HttpStatus.ACCEPTED).body(savedSubmission);
+        }
         return ResponseEntity.ok(savedSubmission);
     }
 
+    // GET /api/student/assignments/submissions/:submissionId/status - Grading status
+    @GetMapping("/submissions/{submissionId}/status")
+    @PreAuthorize("hasAnyRole('STUDENT', 'ADMIN')")
+    public ResponseEntity<SubmissionStatusResponse> getSubmissionStatus(@PathVariable Long submissionId) {
+        return ResponseEntity.ok(submissionService.getSubmissionStatus(submissionId));
+    }
+
     // GET /api/student/assignments/:id/submission - Get my submission
     @GetMapping("/{id}/submission")
     @PreAuthorize("hasAnyRole('STUDENT', 'ADMIN')")
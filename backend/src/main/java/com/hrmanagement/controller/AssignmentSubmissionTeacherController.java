@@ -1,8 +1,14 @@
 package com.hrmanagement.controller;
 
 import com.hrmanagement.model.AssignmentSubmission;
+import com.hrmanagement.payload.request.BulkGradeRequest;
+import com.hrmanagement.payload.response.SubmissionGradeResult;
+import com.hrmanagement.payload.response.SubmissionSummaryResponse;
 import com.hrmanagement.service.AssignmentSubmissionService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
@@ -14,15 +20,27 @@ import java.util.Map;
 @RequestMapping("/api/teacher/assignments")
 public class AssignmentSubmissionTeacherController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private AssignmentSubmissionService submissionService;
 
-    // GET /api/teacher/assignments/:id/submissions - Get all submissions for an assignment (Teacher only)
+    // GET /api/teacher/assignments/:id/submissions?page=0&size=50&includeContent=false - Get submissions for an assignment (Teacher only)
+    // Không truyền size thì trả về tất cả; tổng số bài nộp trả về trong header X-Total-Count
     @GetMapping("/{id}/submissions")
     @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
-    public ResponseEntity<List<AssignmentSubmission>> getSubmissions(@PathVariable Long id) {
-        List<AssignmentSubmission> submissions = submissionService.getSubmissionsByAssignment(id);
-        return ResponseEntity.ok(submissions);
+    public ResponseEntity<List<SubmissionSummaryResponse>> getSubmissions(
+            @PathVariable Long id,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(required = false) Integer size,
+            @RequestParam(defaultValue = "true") boolean includeContent) {
+        Pageable pageable = size != null
+                ? PageRequest.of(Math.max(0, page), Math.min(Math.max(1, size), MAX_PAGE_SIZE))
+                : Pageable.unpaged();
+        Page<SubmissionSummaryResponse> submissions = submissionService.getSubmissionsByAssignment(id, pageable, includeContent);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(submissions.getTotalElements()))
+                .body(submissions.getContent());
     }
 
     // PUT /api/teacher/submissions/:id/grade - Grade a submission (Teacher only)
@@ -35,5 +53,13 @@ public class AssignmentSubmissionTeacherController {
         AssignmentSubmission graded = submissionService.gradeSubmission(id, score);
         return ResponseEntity.ok(graded);
     }
-}
 
+    // PUT /api/teacher/assignments/:id/grades - Grade many submissions of an assignment at once
+    @PutMapping("/{id}/grades")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<List<SubmissionGradeResult>> gradeSubmissions(
+            @PathVariable Long id,
+            @RequestBody BulkGradeRequest request) {
+        return ResponseEntity.ok(submissionService.gradeSubmissions(id, request));
+    }
+}
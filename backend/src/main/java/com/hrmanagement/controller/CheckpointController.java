@@ -1,13 +1,18 @@
 package com.hrmanagement.controller;
 
 import com.hrmanagement.model.LessonCheckpoint;
+import com.hrmanagement.payload.response.CheckpointAnswerResponse;
+import com.hrmanagement.payload.response.CheckpointResponse;
 import com.hrmanagement.service.CheckpointService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/lessons")
@@ -19,9 +24,26 @@ public class CheckpointController {
     // GET /api/lessons/:id/checkpoints - Get all checkpoints for a lesson
     @GetMapping("/{lessonId}/checkpoints")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<LessonCheckpoint>> getCheckpointsByLessonId(@PathVariable Long lessonId) {
-        List<LessonCheckpoint> checkpoints = checkpointService.getCheckpointsByLessonId(lessonId);
-        return ResponseEntity.ok(checkpoints);
+    public ResponseEntity<List<CheckpointResponse>> getCheckpointsByLessonId(@PathVariable Long lessonId, WebRequest webRequest) {
+        String etag = checkpointService.getCheckpointsEtag(lessonId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        List<CheckpointResponse> checkpoints = checkpointService.getCheckpointsByLessonId(lessonId);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(checkpoints);
+    }
+
+    // POST /api/lessons/:lessonId/checkpoints/:id/answer - Answer a checkpoint, graded on the server (Student only)
+    @PostMapping("/{lessonId}/checkpoints/{id}/answer")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<CheckpointAnswerResponse> answerCheckpoint(
+            @PathVariable Long lessonId,
+            @PathVariable Long id,
+            @RequestBody Map<String, String> request) {
+        return ResponseEntity.ok(checkpointService.answerCheckpoint(lessonId, id, request.get("answer")));
     }
 
     // POST /api/lessons/:id/checkpoints - Create a checkpoint (Teacher/Admin only)
@@ -1,11 +1,20 @@
 package com.hrmanagement.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hrmanagement.model.Lesson;
+import com.hrmanagement.payload.response.LessonCatalogPage;
+import com.hrmanagement.payload.response.LessonSummaryResponse;
+import com.hrmanagement.service.LessonBundleService;
 import com.hrmanagement.service.LessonService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -13,23 +22,86 @@ import java.util.List;
 @RequestMapping("/api/lessons")
 public class LessonController {
 
+    private static final int MAX_CATALOG_PAGE_SIZE = 100;
+
     @Autowired
     private LessonService lessonService;
 
+    @Autowired
+    private LessonBundleService lessonBundleService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     // GET /api/lessons - Lấy tất cả bài học (public cho student, filtered cho teacher)
+    // ETag theo phiên bản nội dung: If-None-Match khớp thì trả 304 mà không truy vấn DB
     @GetMapping
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<Lesson>> getAllLessons() {
+    public ResponseEntity<List<Lesson>> getAllLessons(WebRequest webRequest) {
+        String etag = lessonService.getLessonsEtag();
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         List<Lesson> lessons = lessonService.getAllLessons();
-        return ResponseEntity.ok(lessons);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(lessons);
+    }
+
+    // GET /api/lessons/catalog?limit=20&cursor=... - Danh mục bài học dạng tóm tắt, phân trang theo keyset
+    // Cursor của trang tiếp theo trả về trong header X-Next-Cursor (không có header là trang cuối)
+    @GetMapping("/catalog")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<LessonSummaryResponse>> getLessonCatalog(
+            @RequestParam(defaultValue = "20") int limit,
+            @RequestParam(required = false) String cursor,
+            WebRequest webRequest) {
+        int safeLimit = Math.min(Math.max(1, limit), MAX_CATALOG_PAGE_SIZE);
+        String etag = lessonService.getCatalogEtag(safeLimit, cursor);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        LessonCatalogPage page = lessonService.getCatalog(safeLimit, cursor);
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate());
+        if (page.nextCursor() != null) {
+            response.header("X-Next-Cursor", page.nextCursor());
+        }
+        return response.body(page.items());
     }
 
     // GET /api/lessons/:id - Lấy bài học theo ID
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<Lesson> getLessonById(@PathVariable Long id) {
+    public ResponseEntity<Lesson> getLessonById(@PathVariable Long id, WebRequest webRequest) {
+        String etag = lessonService.getLessonEtag(id);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         Lesson lesson = lessonService.getLessonById(id);
-        return ResponseEntity.ok(lesson);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(lesson);
+    }
+
+    // GET /api/lessons/:id/bundle - Bài học + checkpoint + quiz + tiến trình của người gọi trong 1 request.
+    // ETag là hash nội dung (theo từng người dùng), client gửi If-None-Match sẽ nhận 304 nếu không đổi
+    @GetMapping("/{id}/bundle")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<byte[]> getLessonBundle(@PathVariable Long id, WebRequest webRequest) throws JsonProcessingException {
+        byte[] body = objectMapper.writeValueAsBytes(lessonBundleService.getLessonBundle(id));
+        String etag = "\"" + DigestUtils.md5DigestAsHex(body) + "\"";
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
     }
 
     // POST /api/teacher/lessons - Tạo bài học mới (chỉ teacher)
@@ -1,6 +1,7 @@
 package com.hrmanagement.controller;
 
 import com.hrmanagement.model.LessonProgress;
+import com.hrmanagement.payload.request.ProgressBatchRequest;
 import com.hrmanagement.service.ProgressService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -42,6 +43,14 @@ public class ProgressController {
         return ResponseEntity.ok(progress);
     }
 
+    // POST /api/student/lessons/progress/batch - Update progress for many lessons in one request
+    @PostMapping("/student/lessons/progress/batch")
+    @PreAuthorize("hasAnyRole('STUDENT', 'ADMIN')")
+    public ResponseEntity<List<LessonProgress>> updateProgressBatch(@RequestBody ProgressBatchRequest request) {
+        List<LessonProgress> progress = progressService.updateProgressBatch(request);
+        return ResponseEntity.ok(progress);
+    }
+
     // GET /api/teacher/lessons/:id/progress - Get all student progress for a lesson (Teacher)
     @GetMapping("/teacher/lessons/{lessonId}/progress")
     @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
@@ -3,9 +3,11 @@ package com.hrmanagement.controller;
 import com.hrmanagement.model.FinalQuiz;
 import com.hrmanagement.service.QuizService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -19,9 +21,16 @@ public class QuizController {
     // GET /api/lessons/:id/quiz - Get quiz for a lesson
     @GetMapping("/{lessonId}/quiz")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<List<FinalQuiz>> getQuizByLessonId(@PathVariable Long lessonId) {
+    public ResponseEntity<List<FinalQuiz>> getQuizByLessonId(@PathVariable Long lessonId, WebRequest webRequest) {
+        String etag = quizService.getQuizEtag(lessonId);
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
         List<FinalQuiz> quizzes = quizService.getQuizzesByLessonId(lessonId);
-        return ResponseEntity.ok(quizzes);
+        return ResponseEntity.ok()
+                .eTag(etag)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .body(quizzes);
     }
 
     // POST /api/lessons/:id/quiz - Create a quiz (Teacher/Admin only)
@@ -1,5 +1,6 @@
 package com.hrmanagement.controller;
 
+import com.hrmanagement.payload.response.StudentRankResponse;
 import com.hrmanagement.service.RankingService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.ResponseEntity;
@@ -7,21 +8,35 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/ranking")
 public class RankingController {
 
+    private static final int MAX_PAGE_SIZE = 200;
+
     @Autowired
     private RankingService rankingService;
 
-    // GET /api/ranking/students - Get student ranking by stars
+    // GET /api/ranking/students?offset=0&limit=50 - Get one page of the student ranking by stars
+    // Tổng số học sinh trả về trong header X-Total-Count
     @GetMapping("/students")
     @PreAuthorize("hasAnyRole('STUDENT', 'TEACHER', 'ADMIN')")
-    public ResponseEntity<List<Map<String, Object>>> getStudentRanking() {
-        List<Map<String, Object>> ranking = rankingService.getStudentRanking();
-        return ResponseEntity.ok(ranking);
+    public ResponseEntity<List<StudentRankResponse>> getStudentRanking(
+            @RequestParam(defaultValue = "0") int offset,
+            @RequestParam(defaultValue = "50") int limit) {
+        int safeOffset = Math.max(0, offset);
+        int safeLimit = Math.min(Math.max(1, limit), MAX_PAGE_SIZE);
+        List<StudentRankResponse> ranking = rankingService.getRankingPage(safeOffset, safeLimit);
+        return ResponseEntity.ok()
+                .header("X-Total-Count", String.valueOf(rankingService.getTotalStudents()))
+                .body(ranking);
     }
-}
 
+    // GET /api/ranking/students/me - Get current student's rank
+    @GetMapping("/students/me")
+    @PreAuthorize("hasRole('STUDENT')")
+    public ResponseEntity<StudentRankResponse> getMyRank() {
+        return ResponseEntity.ok(rankingService.getCurrentStudentRank());
+    }
+}
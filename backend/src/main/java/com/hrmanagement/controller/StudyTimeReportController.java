@@ -0,0 +1,60 @@
+package com.hrmanagement.controller;
+
+import com.hrmanagement.payload.response.StudentStudyTotalResponse;
+import com.hrmanagement.payload.response.StudyRollupResponse;
+import com.hrmanagement.service.StudyTimeRollupService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+public class StudyTimeReportController {
+
+    @Autowired
+    private StudyTimeRollupService studyTimeRollupService;
+
+    // GET /api/teacher/study/rollups?period=week|month&from=&to=&studentId= - Thời gian học theo tuần/tháng (mặc định toàn hệ thống, 12 kỳ gần nhất)
+    @GetMapping("/api/teacher/study/rollups")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<List<StudyRollupResponse>> getRollups(
+            @RequestParam(defaultValue = "week") String period,
+            @RequestParam(required = false) Long studentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(studyTimeRollupService.getSeries(period, studentId, from, to));
+    }
+
+    // GET /api/teacher/study/rollups/students?period=week|month&date= - Thời gian học của từng học sinh trong kỳ chứa date
+    @GetMapping("/api/teacher/study/rollups/students")
+    @PreAuthorize("hasAnyRole('TEACHER', 'ADMIN')")
+    public ResponseEntity<List<StudentStudyTotalResponse>> getStudentTotals(
+            @RequestParam(defaultValue = "week") String period,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        return ResponseEntity.ok(studyTimeRollupService.getStudentTotals(period, date));
+    }
+
+    // GET /api/admin/study/rollups - Giống endpoint của giáo viên, cho trang admin
+    @GetMapping("/api/admin/study/rollups")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<StudyRollupResponse>> getAdminRollups(
+            @RequestParam(defaultValue = "week") String period,
+            @RequestParam(required = false) Long studentId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        return ResponseEntity.ok(studyTimeRollupService.getSeries(period, studentId, from, to));
+    }
+
+    // POST /api/admin/study/rollups/rebuild - Tính lại toàn bộ thống kê từ study_time
+    @PostMapping("/api/admin/study/rollups/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Map<String, Object>> rebuildRollups() {
+        int rows = studyTimeRollupService.rebuildNow();
+        return ResponseEntity.ok(Map.of("rows", rows));
+    }
+}
@@ -1,6 +1,8 @@
 package com.hrmanagement.controller;
 
 import com.hrmanagement.model.User;
+import com.hrmanagement.security.jwt.JwtTokenProvider;
+import com.hrmanagement.security.services.UserPrincipal;
 // --- MỚI: Import UserService ---
 import com.hrmanagement.service.UserService;
 // --- HẾT CODE MỚI ---
@@ -21,6 +23,9 @@ public class UserController {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
     // 1. THÊM DTO NỘI BỘ: Lớp để nhận mật khẩu mới từ Request Body
     // (Tốt nhất nên đặt lớp này trong thư mục DTO riêng, nhưng tôi đặt ở đây để tiện theo dõi)
     public static class PasswordUpdateRequest {
@@ -87,8 +92,11 @@ public class UserController {
             request.getNewPassword()
         );
         
+        // Token cũ đã bị thu hồi: trả token mới trong header Authorization
         // Trả về User đã cập nhật (nên đảm bảo trường password bị ẩn/ignore)
-        return ResponseEntity.ok(updatedUser);
+        return ResponseEntity.ok()
+                .header("Authorization", "Bearer " + tokenProvider.generateToken(UserPrincipal.of(updatedUser)))
+                .body(updatedUser);
     }
     // ------------------------------------------
 
@@ -4,14 +4,25 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "assignment_questions")
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
 public class AssignmentQuestion {
+    // Sequence cấp id theo khối (allocationSize) để Hibernate gộp được INSERT thành JDBC batch,
+    // IDENTITY bắt buộc mỗi INSERT chạy riêng để lấy id. Sequence được căn theo MAX(id) lúc khởi động
+    // (AssignmentQuestionSequenceInitializer) vì các dòng cũ được tạo bằng IDENTITY.
+    public static final String ID_SEQUENCE = "assignment_questions_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "assignment_question_id")
+    @SequenceGenerator(name = "assignment_question_id", sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @NotNull
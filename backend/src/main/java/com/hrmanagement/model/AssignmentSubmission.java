@@ -9,6 +9,11 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "assignment_submissions")
 public class AssignmentSubmission {
+    // Trạng thái chấm: pending = đang chờ chấm bất đồng bộ, graded = đã tự động chấm, manual = giáo viên chấm tay
+    public static final String GRADING_PENDING = "pending";
+    public static final String GRADING_GRADED = "graded";
+    public static final String GRADING_MANUAL = "manual";
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -31,6 +36,9 @@ public class AssignmentSubmission {
     @Column(name = "score")
     private Double score; // nullable until graded
 
+    @Column(name = "grading_status", length = 20)
+    private String gradingStatus;
+
     @Column(name = "submitted_at")
     private LocalDateTime submittedAt;
 
@@ -67,6 +75,8 @@ public class AssignmentSubmission {
     public void setContent(String content) { this.content = content; }
     public Double getScore() { return score; }
     public void setScore(Double score) { this.score = score; }
+    public String getGradingStatus() { return gradingStatus; }
+    public void setGradingStatus(String gradingStatus) { this.gradingStatus = gradingStatus; }
     public LocalDateTime getSubmittedAt() { return submittedAt; }
     public void setSubmittedAt(LocalDateTime submittedAt) { this.submittedAt = submittedAt; }
     public LocalDateTime getCreatedAt() { return createdAt; }
@@ -0,0 +1,57 @@
+package com.hrmanagement.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Câu trả lời checkpoint của học sinh, do server chấm (mỗi học sinh 1 dòng / checkpoint, trả lời lại thì ghi đè).
+ * Số checkpoint đã hoàn thành trong lesson_progress được tính từ bảng này, không lấy từ client.
+ */
+@Entity
+@Table(name = "checkpoint_answers", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_checkpoint_answer_student", columnNames = {"student_id", "checkpoint_id"})
+}, indexes = {
+        @Index(name = "idx_checkpoint_answer_student_lesson", columnList = "student_id, lesson_id")
+})
+public class CheckpointAnswer {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "lesson_id", nullable = false)
+    private Long lessonId;
+
+    @Column(name = "checkpoint_id", nullable = false)
+    private Long checkpointId;
+
+    @Column(columnDefinition = "TEXT")
+    private String answer;
+
+    @Column(nullable = false)
+    private Boolean correct = false;
+
+    @Column(name = "answered_at")
+    private LocalDateTime answeredAt;
+
+    public CheckpointAnswer() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getStudentId() { return studentId; }
+    public void setStudentId(Long studentId) { this.studentId = studentId; }
+    public Long getLessonId() { return lessonId; }
+    public void setLessonId(Long lessonId) { this.lessonId = lessonId; }
+    public Long getCheckpointId() { return checkpointId; }
+    public void setCheckpointId(Long checkpointId) { this.checkpointId = checkpointId; }
+    public String getAnswer() { return answer; }
+    public void setAnswer(String answer) { this.answer = answer; }
+    public Boolean getCorrect() { return correct; }
+    public void setCorrect(Boolean correct) { this.correct = correct; }
+    public LocalDateTime getAnsweredAt() { return answeredAt; }
+    public void setAnsweredAt(LocalDateTime answeredAt) { this.answeredAt = answeredAt; }
+}
@@ -8,8 +8,13 @@ import java.time.LocalDate;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "study_time")
+@Table(name = "study_time", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_study_time_student_date", columnNames = {"student_id", "date"})
+})
 public class StudyTime {
+    // Phiên bản đơn vị lưu trữ: null = dữ liệu cũ (total_minutes lẫn phút/giây), 2 = total_seconds chuẩn
+    public static final int CURRENT_UNIT_VERSION = 2;
+
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
@@ -24,9 +29,18 @@ public class StudyTime {
     @Column(name = "date")
     private LocalDate date;
 
+    @Column(name = "total_seconds")
+    private Integer totalSeconds;
+
+    // Cột cũ, giữ NOT NULL để tương thích DB cũ; luôn ghi bằng totalSeconds / 60
     @NotNull
+    @JsonIgnore
     @Column(name = "total_minutes")
-    private Integer totalSeconds; // Lưu tổng số giây (column name giữ nguyên để tương thích DB cũ)
+    private Integer legacyTotalMinutes;
+
+    @JsonIgnore
+    @Column(name = "unit_version")
+    private Integer unitVersion;
 
     @Column(name = "created_at")
     private LocalDateTime createdAt;
@@ -38,11 +52,19 @@ public class StudyTime {
     protected void onCreate() {
         createdAt = LocalDateTime.now();
         updatedAt = LocalDateTime.now();
+        syncLegacyColumns();
     }
 
     @PreUpdate
     protected void onUpdate() {
         updatedAt = LocalDateTime.now();
+        syncLegacyColumns();
+    }
+
+    private void syncLegacyColumns() {
+        if (totalSeconds == null) totalSeconds = 0;
+        legacyTotalMinutes = totalSeconds / 60;
+        unitVersion = CURRENT_UNIT_VERSION;
     }
 
     public StudyTime() {}
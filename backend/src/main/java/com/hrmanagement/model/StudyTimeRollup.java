@@ -0,0 +1,81 @@
+package com.hrmanagement.model;
+
+import jakarta.persistence.*;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+
+/**
+ * Tổng thời gian học theo tuần / tháng của một học sinh (studentId = 0 là tổng toàn hệ thống).
+ * Được cộng dồn mỗi lần stopStudy và tính lại từ study_time bởi job compaction.
+ */
+@Entity
+@Table(name = "study_time_rollup", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_study_time_rollup_key", columnNames = {"student_id", "period_type", "period_start"})
+})
+public class StudyTimeRollup {
+    public static final String PERIOD_WEEK = "week";
+    public static final String PERIOD_MONTH = "month";
+    public static final long GLOBAL_STUDENT_ID = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "student_id", nullable = false)
+    private Long studentId;
+
+    @Column(name = "period_type", nullable = false, length = 10)
+    private String periodType;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;
+
+    @Column(name = "total_seconds", nullable = false)
+    private Long totalSeconds = 0L;
+
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    public StudyTimeRollup() {}
+
+    public StudyTimeRollup(Long studentId, String periodType, LocalDate periodStart, Long totalSeconds) {
+        this.studentId = studentId;
+        this.periodType = periodType;
+        this.periodStart = periodStart;
+        this.totalSeconds = totalSeconds;
+    }
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Ngày bắt đầu kỳ chứa date: thứ Hai của tuần hoặc ngày 1 của tháng
+    public static LocalDate periodStart(String periodType, LocalDate date) {
+        if (PERIOD_WEEK.equals(periodType)) {
+            return date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        }
+        if (PERIOD_MONTH.equals(periodType)) {
+            return date.withDayOfMonth(1);
+        }
+        throw new IllegalArgumentException("Kỳ thống kê không hợp lệ: " + periodType);
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getStudentId() { return studentId; }
+    public void setStudentId(Long studentId) { this.studentId = studentId; }
+    public String getPeriodType() { return periodType; }
+    public void setPeriodType(String periodType) { this.periodType = periodType; }
+    public LocalDate getPeriodStart() { return periodStart; }
+    public void setPeriodStart(LocalDate periodStart) { this.periodStart = periodStart; }
+    public Long getTotalSeconds() { return totalSeconds; }
+    public void setTotalSeconds(Long totalSeconds) { this.totalSeconds = totalSeconds; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
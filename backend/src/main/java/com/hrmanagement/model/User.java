@@ -40,6 +40,11 @@ public class User {
     private String phone;
     private String address;
 
+    // Tăng lên mỗi lần đổi mật khẩu để vô hiệu hóa các JWT đã cấp trước đó (null = 0)
+    @JsonIgnore
+    @Column(name = "token_version")
+    private Integer tokenVersion = 0;
+
     // --- QUAN HỆ VỚI CÁC ENTITY MỚI ---
     
     // Lessons (nếu là teacher)
@@ -98,4 +103,6 @@ public class User {
     public void setPhone(String phone) { this.phone = phone; }
     public String getAddress() { return address; }
     public void setAddress(String address) { this.address = address; }
+    public Integer getTokenVersion() { return tokenVersion; }
+    public void setTokenVersion(Integer tokenVersion) { this.tokenVersion = tokenVersion; }
 }
\ No newline at end of file
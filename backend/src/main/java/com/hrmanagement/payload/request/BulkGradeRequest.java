@@ -0,0 +1,32 @@
+package com.hrmanagement.payload.request;
+
+import java.util.List;
+
+/**
+ * Điểm của nhiều bài nộp trong cùng một assignment, giáo viên chấm một lượt.
+ */
+public class BulkGradeRequest {
+    private List<Item> grades;
+
+    public BulkGradeRequest() {}
+
+    public List<Item> getGrades() {
+        return grades;
+    }
+
+    public void setGrades(List<Item> grades) {
+        this.grades = grades;
+    }
+
+    public static class Item {
+        private Long submissionId;
+        private Double score;
+
+        public Item() {}
+
+        public Long getSubmissionId() { return submissionId; }
+        public void setSubmissionId(Long submissionId) { this.submissionId = submissionId; }
+        public Double getScore() { return score; }
+        public void setScore(Double score) { this.score = score; }
+    }
+}
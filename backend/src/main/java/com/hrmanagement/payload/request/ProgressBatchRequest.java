@@ -0,0 +1,46 @@
+package com.hrmanagement.payload.request;
+
+import java.util.List;
+
+/**
+ * Nhiều cập nhật tiến trình (có thể nhiều bài học) gửi trong một request.
+ * Các cập nhật cùng bài học được gộp lại trước khi ghi DB.
+ */
+public class ProgressBatchRequest {
+    private List<Item> updates;
+
+    public ProgressBatchRequest() {}
+
+    public List<Item> getUpdates() {
+        return updates;
+    }
+
+    public void setUpdates(List<Item> updates) {
+        this.updates = updates;
+    }
+
+    public static class Item {
+        private Long lessonId;
+        private Integer videoProgressSeconds;
+        // Bỏ qua: số checkpoint được server tính từ câu trả lời đã chấm, giữ lại để client cũ không lỗi
+        private Integer checkpointsCompleted;
+        private Integer totalCheckpoints;
+        private Double quizScore;
+        private Boolean completed;
+
+        public Item() {}
+
+        public Long getLessonId() { return lessonId; }
+        public void setLessonId(Long lessonId) { this.lessonId = lessonId; }
+        public Integer getVideoProgressSeconds() { return videoProgressSeconds; }
+        public void setVideoProgressSeconds(Integer videoProgressSeconds) { this.videoProgressSeconds = videoProgressSeconds; }
+        public Integer getCheckpointsCompleted() { return checkpointsCompleted; }
+        public void setCheckpointsCompleted(Integer checkpointsCompleted) { this.checkpointsCompleted = checkpointsCompleted; }
+        public Integer getTotalCheckpoints() { return totalCheckpoints; }
+        public void setTotalCheckpoints(Integer totalCheckpoints) { this.totalCheckpoints = totalCheckpoints; }
+        public Double getQuizScore() { return quizScore; }
+        public void setQuizScore(Double quizScore) { this.quizScore = quizScore; }
+        public Boolean getCompleted() { return completed; }
+        public void setCompleted(Boolean completed) { this.completed = completed; }
+    }
+}
@@ -0,0 +1,7 @@
+package com.hrmanagement.payload.response;
+
+/**
+ * Thống kê một region của second-level cache (hit / miss / put từ Hibernate, size là số entry hiện có)
+ */
+public record CacheRegionStatsResponse(String region, long hits, long misses, long puts, double hitRatio, long size) {
+}
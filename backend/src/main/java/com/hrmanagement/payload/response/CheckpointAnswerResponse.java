@@ -0,0 +1,12 @@
+package com.hrmanagement.payload.response;
+
+/**
+ * Kết quả chấm một câu trả lời checkpoint, kèm tiến trình checkpoint của học sinh trong bài học (tính ở server)
+ */
+public record CheckpointAnswerResponse(Long checkpointId,
+                                       boolean correct,
+                                       String correctAnswer,
+                                       String explanation,
+                                       int checkpointsCompleted,
+                                       int totalCheckpoints) {
+}
@@ -0,0 +1,14 @@
+package com.hrmanagement.payload.response;
+
+/**
+ * Checkpoint trong timeline của bài học. correctAnswer / explanation chỉ có khi người xem là giáo viên hoặc admin,
+ * học sinh nhận đáp án qua kết quả của POST .../answer.
+ */
+public record CheckpointResponse(Long id,
+                                 Integer timeInSeconds,
+                                 String question,
+                                 String options,
+                                 String questionType,
+                                 String correctAnswer,
+                                 String explanation) {
+}
@@ -0,0 +1,17 @@
+package com.hrmanagement.payload.response;
+
+import com.hrmanagement.model.FinalQuiz;
+import com.hrmanagement.model.Lesson;
+import com.hrmanagement.model.LessonProgress;
+
+import java.util.List;
+
+/**
+ * Toàn bộ dữ liệu trang bài học trong 1 response: bài học, checkpoint theo thời gian, quiz cuối bài
+ * và tiến trình của người gọi (null nếu không phải học sinh hoặc chưa học)
+ */
+public record LessonBundleResponse(Lesson lesson,
+                                   List<CheckpointResponse> checkpoints,
+                                   List<FinalQuiz> quiz,
+                                   LessonProgress progress) {
+}
@@ -0,0 +1,9 @@
+package com.hrmanagement.payload.response;
+
+import java.util.List;
+
+/**
+ * Một trang danh mục bài học; nextCursor = null khi đã hết.
+ */
+public record LessonCatalogPage(List<LessonSummaryResponse> items, String nextCursor) {
+}
@@ -0,0 +1,13 @@
+package com.hrmanagement.payload.response;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một bài học trong danh mục (không kèm mô tả / link video, xem chi tiết ở GET /api/lessons/{id}).
+ */
+public record LessonSummaryResponse(Long id,
+                                    String title,
+                                    Integer totalDuration,
+                                    String teacherName,
+                                    LocalDateTime createdAt) {
+}
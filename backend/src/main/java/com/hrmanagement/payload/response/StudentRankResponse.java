@@ -0,0 +1,7 @@
+package com.hrmanagement.payload.response;
+
+/**
+ * Một dòng trong bảng xếp hạng học sinh (rank bắt đầu từ 1)
+ */
+public record StudentRankResponse(int rank, Long id, String name, String email, int stars) {
+}
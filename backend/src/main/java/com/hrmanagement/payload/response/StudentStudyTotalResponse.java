@@ -0,0 +1,7 @@
+package com.hrmanagement.payload.response;
+
+/**
+ * Tổng thời gian học của một học sinh trong một kỳ
+ */
+public record StudentStudyTotalResponse(Long studentId, String name, String email, long totalSeconds) {
+}
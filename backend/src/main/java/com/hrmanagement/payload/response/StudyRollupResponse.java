@@ -0,0 +1,9 @@
+package com.hrmanagement.payload.response;
+
+import java.time.LocalDate;
+
+/**
+ * Tổng thời gian học của một kỳ (tuần bắt đầu từ thứ Hai, tháng bắt đầu từ ngày 1)
+ */
+public record StudyRollupResponse(String periodType, LocalDate periodStart, long totalSeconds) {
+}
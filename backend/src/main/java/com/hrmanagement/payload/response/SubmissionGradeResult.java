@@ -0,0 +1,11 @@
+package com.hrmanagement.payload.response;
+
+/**
+ * Kết quả chấm từng bài trong một lượt chấm hàng loạt: updated, not_found (không thuộc assignment) hoặc invalid
+ */
+public record SubmissionGradeResult(Long submissionId, Double score, String status, String message) {
+
+    public static final String UPDATED = "updated";
+    public static final String NOT_FOUND = "not_found";
+    public static final String INVALID = "invalid";
+}
@@ -0,0 +1,10 @@
+package com.hrmanagement.payload.response;
+
+import java.time.LocalDateTime;
+
+/**
+ * Trạng thái chấm của một bài nộp: pending (đang chờ chấm), graded (đã tự động chấm), manual (giáo viên chấm)
+ */
+public record SubmissionStatusResponse(Long submissionId, String gradingStatus, Double score,
+                                       LocalDateTime submittedAt, LocalDateTime updatedAt) {
+}
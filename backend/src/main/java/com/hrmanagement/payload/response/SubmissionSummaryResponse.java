@@ -0,0 +1,20 @@
+package com.hrmanagement.payload.response;
+
+import java.time.LocalDateTime;
+
+/**
+ * Một dòng trong danh sách bài nộp của giáo viên, đọc thẳng từ truy vấn join (không nạp entity).
+ * content = null khi danh sách được lấy ở chế độ không kèm nội dung; contentLength luôn có.
+ */
+public record SubmissionSummaryResponse(Long id,
+                                        Long studentId,
+                                        String studentName,
+                                        String studentEmail,
+                                        Double score,
+                                        String gradingStatus,
+                                        LocalDateTime submittedAt,
+                                        LocalDateTime createdAt,
+                                        LocalDateTime updatedAt,
+                                        Integer contentLength,
+                                        String content) {
+}
@@ -2,7 +2,12 @@ package com.hrmanagement.repository;
 
 import com.hrmanagement.model.Assignment;
 import com.hrmanagement.model.AssignmentQuestion;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,7 +15,18 @@ import java.util.List;
 @Repository
 public interface AssignmentQuestionRepository extends JpaRepository<AssignmentQuestion, Long> {
     List<AssignmentQuestion> findByAssignment(Assignment assignment);
+
+    // Kết quả nằm trong query cache, Hibernate tự bỏ khi bảng assignment_questions thay đổi
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<AssignmentQuestion> findByAssignmentIdOrderByOrderIndexAsc(Long assignmentId);
-    void deleteByAssignment(Assignment assignment);
+
+    // Chỉ lấy id + đáp án đúng để dựng answer key (không load nội dung câu hỏi / options)
+    @Query("SELECT q.id AS id, q.correctAnswer AS correctAnswer FROM AssignmentQuestion q WHERE q.assignment.id = :assignmentId")
+    List<AnswerKeyView> findAnswerKeyByAssignmentId(@Param("assignmentId") Long assignmentId);
+
+    interface AnswerKeyView {
+        Long getId();
+        String getCorrectAnswer();
+    }
 }
 
@@ -3,9 +3,12 @@ package com.hrmanagement.repository;
 import com.hrmanagement.model.Assignment;
 import com.hrmanagement.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface AssignmentRepository extends JpaRepository<Assignment, Long> {
@@ -13,5 +16,9 @@ public interface AssignmentRepository extends JpaRepository<Assignment, Long> {
     List<Assignment> findByTeacherId(Long teacherId);
     List<Assignment> findByType(String type);
     List<Assignment> findAllByOrderByCreatedAtDesc();
+
+    // Chỉ lấy id giáo viên để kiểm tra quyền, không nạp entity Assignment / User
+    @Query("SELECT a.teacher.id FROM Assignment a WHERE a.id = :id")
+    Optional<Long> findTeacherIdById(@Param("id") Long id);
 }
 
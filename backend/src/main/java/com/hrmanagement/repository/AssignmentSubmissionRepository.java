@@ -3,7 +3,12 @@ package com.hrmanagement.repository;
 import com.hrmanagement.model.Assignment;
 import com.hrmanagement.model.AssignmentSubmission;
 import com.hrmanagement.model.User;
+import com.hrmanagement.payload.response.SubmissionSummaryResponse;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -14,5 +19,20 @@ public interface AssignmentSubmissionRepository extends JpaRepository<Assignment
     Optional<AssignmentSubmission> findByAssignmentAndStudent(Assignment assignment, User student);
     List<AssignmentSubmission> findByStudent(User student);
     List<AssignmentSubmission> findByAssignment(Assignment assignment);
+
+    String SUMMARY_SELECT = "SELECT new com.hrmanagement.payload.response.SubmissionSummaryResponse(" +
+            "s.id, u.id, u.name, u.email, s.score, s.gradingStatus, s.submittedAt, s.createdAt, s.updatedAt, " +
+            "length(s.content), ";
+    String SUMMARY_FROM = "FROM AssignmentSubmission s JOIN s.student u WHERE s.assignment.id = :assignmentId " +
+            "ORDER BY s.submittedAt ASC, s.id ASC";
+    String SUMMARY_COUNT = "SELECT COUNT(s) FROM AssignmentSubmission s WHERE s.assignment.id = :assignmentId";
+
+    // Danh sách bài nộp cho giáo viên: 1 truy vấn join với users, Pageable.unpaged() để lấy tất cả
+    @Query(value = SUMMARY_SELECT + "s.content) " + SUMMARY_FROM, countQuery = SUMMARY_COUNT)
+    Page<SubmissionSummaryResponse> findSummariesByAssignmentId(@Param("assignmentId") Long assignmentId, Pageable pageable);
+
+    // Như trên nhưng không đọc cột TEXT content
+    @Query(value = SUMMARY_SELECT + "cast(null as String)) " + SUMMARY_FROM, countQuery = SUMMARY_COUNT)
+    Page<SubmissionSummaryResponse> findSummariesWithoutContentByAssignmentId(@Param("assignmentId") Long assignmentId, Pageable pageable);
 }
 
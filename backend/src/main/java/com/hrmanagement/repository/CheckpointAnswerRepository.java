@@ -0,0 +1,48 @@
+package com.hrmanagement.repository;
+
+import com.hrmanagement.model.CheckpointAnswer;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface CheckpointAnswerRepository extends JpaRepository<CheckpointAnswer, Long> {
+
+    // Tạo dòng câu trả lời nếu chưa có (unique student_id + checkpoint_id), không lỗi khi 2 request chạy song song
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "checkpoint_answers"))
+    @Query(value = "INSERT INTO checkpoint_answers (student_id, lesson_id, checkpoint_id, correct) " +
+                   "VALUES (:studentId, :lessonId, :checkpointId, false) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("studentId") Long studentId,
+                       @Param("lessonId") Long lessonId,
+                       @Param("checkpointId") Long checkpointId);
+
+    @Modifying
+    @Query("UPDATE CheckpointAnswer a SET a.answer = :answer, a.correct = :correct, a.answeredAt = :now " +
+           "WHERE a.studentId = :studentId AND a.checkpointId = :checkpointId")
+    int updateAnswer(@Param("studentId") Long studentId,
+                     @Param("checkpointId") Long checkpointId,
+                     @Param("answer") String answer,
+                     @Param("correct") boolean correct,
+                     @Param("now") LocalDateTime now);
+
+    @Query("SELECT a.checkpointId FROM CheckpointAnswer a WHERE a.studentId = :studentId AND a.lessonId = :lessonId")
+    List<Long> findAnsweredCheckpointIds(@Param("studentId") Long studentId, @Param("lessonId") Long lessonId);
+
+    // [studentId, số câu đã trả lời] của từng học sinh trong bài học
+    @Query("SELECT a.studentId, COUNT(a) FROM CheckpointAnswer a WHERE a.lessonId = :lessonId GROUP BY a.studentId")
+    List<Object[]> countAnsweredByStudent(@Param("lessonId") Long lessonId);
+
+    @Modifying
+    @Query("DELETE FROM CheckpointAnswer a WHERE a.checkpointId = :checkpointId")
+    int deleteByCheckpointId(@Param("checkpointId") Long checkpointId);
+}
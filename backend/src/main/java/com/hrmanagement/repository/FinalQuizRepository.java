@@ -2,7 +2,10 @@ package com.hrmanagement.repository;
 
 import com.hrmanagement.model.FinalQuiz;
 import com.hrmanagement.model.Lesson;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,6 +13,9 @@ import java.util.List;
 @Repository
 public interface FinalQuizRepository extends JpaRepository<FinalQuiz, Long> {
     List<FinalQuiz> findByLesson(Lesson lesson);
+
+    // Kết quả nằm trong query cache, Hibernate tự bỏ khi bảng final_quiz thay đổi
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
     List<FinalQuiz> findByLessonId(Long lessonId);
 }
 
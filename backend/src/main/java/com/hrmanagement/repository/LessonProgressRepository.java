@@ -4,8 +4,11 @@ import com.hrmanagement.model.Lesson;
 import com.hrmanagement.model.LessonProgress;
 import com.hrmanagement.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -17,5 +20,31 @@ public interface LessonProgressRepository extends JpaRepository<LessonProgress,
     List<LessonProgress> findByStudentId(Long studentId);
     List<LessonProgress> findByLesson(Lesson lesson);
     List<LessonProgress> findByLessonId(Long lessonId);
-}
+    List<LessonProgress> findByStudentIdAndLessonIdIn(Long studentId, Collection<Long> lessonIds);
+
+    // Các cột cần để tính số sao, join sẵn lesson để không phải findById từng dòng
+    @Query("SELECT p.student.id AS studentId, p.lesson.id AS lessonId, p.completed AS completed, " +
+           "p.videoProgressSeconds AS videoProgressSeconds, l.totalDuration AS totalDuration, " +
+           "p.checkpointsCompleted AS checkpointsCompleted, p.totalCheckpoints AS totalCheckpoints, " +
+           "p.quizScore AS quizScore " +
+           "FROM LessonProgress p JOIN p.lesson l")
+    List<ProgressScoreView> findAllScoreViews();
 
+    @Query("SELECT p.student.id AS studentId, p.lesson.id AS lessonId, p.completed AS completed, " +
+           "p.videoProgressSeconds AS videoProgressSeconds, l.totalDuration AS totalDuration, " +
+           "p.checkpointsCompleted AS checkpointsCompleted, p.totalCheckpoints AS totalCheckpoints, " +
+           "p.quizScore AS quizScore " +
+           "FROM LessonProgress p JOIN p.lesson l WHERE p.student.id IN :studentIds")
+    List<ProgressScoreView> findScoreViewsByStudentIdIn(@Param("studentIds") Collection<Long> studentIds);
+
+    interface ProgressScoreView {
+        Long getStudentId();
+        Long getLessonId();
+        Boolean getCompleted();
+        Integer getVideoProgressSeconds();
+        Integer getTotalDuration();
+        Integer getCheckpointsCompleted();
+        Integer getTotalCheckpoints();
+        Double getQuizScore();
+    }
+}
@@ -2,14 +2,39 @@ package com.hrmanagement.repository;
 
 import com.hrmanagement.model.Lesson;
 import com.hrmanagement.model.User;
+import com.hrmanagement.payload.response.LessonSummaryResponse;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 @Repository
 public interface LessonRepository extends JpaRepository<Lesson, Long> {
     List<Lesson> findByTeacher(User teacher);
     List<Lesson> findAllByOrderByCreatedAtDesc();
+
+    @Query("SELECT l.id FROM Lesson l WHERE l.teacher.id = :teacherId")
+    List<Long> findIdsByTeacherId(@Param("teacherId") Long teacherId);
+
+    // Danh mục bài học theo keyset (created_at, id) giảm dần, dùng index idx_lessons_created_at_id.
+    // teacherId = null là tất cả bài học; Pageable chỉ dùng để giới hạn số dòng (không đếm)
+    @Query("SELECT new com.hrmanagement.payload.response.LessonSummaryResponse(l.id, l.title, l.totalDuration, t.name, l.createdAt) " +
+           "FROM Lesson l LEFT JOIN l.teacher t " +
+           "WHERE (:teacherId IS NULL OR t.id = :teacherId) " +
+           "ORDER BY l.createdAt DESC, l.id DESC")
+    List<LessonSummaryResponse> findCatalogFirstPage(@Param("teacherId") Long teacherId, Pageable pageable);
+
+    @Query("SELECT new com.hrmanagement.payload.response.LessonSummaryResponse(l.id, l.title, l.totalDuration, t.name, l.createdAt) " +
+           "FROM Lesson l LEFT JOIN l.teacher t " +
+           "WHERE (:teacherId IS NULL OR t.id = :teacherId) AND (l.createdAt, l.id) < (:createdAt, :id) " +
+           "ORDER BY l.createdAt DESC, l.id DESC")
+    List<LessonSummaryResponse> findCatalogPageAfter(@Param("teacherId") Long teacherId,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") Long id,
+                                                     Pageable pageable);
 }
 
@@ -2,10 +2,17 @@ package com.hrmanagement.repository;
 
 import com.hrmanagement.model.StudyTime;
 import com.hrmanagement.model.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -16,5 +23,59 @@ public interface StudyTimeRepository extends JpaRepository<StudyTime, Long> {
     List<StudyTime> findByStudentOrderByDateDesc(User student);
     List<StudyTime> findByStudentId(Long studentId);
     List<StudyTime> findByStudentIdAndDateBetween(Long studentId, LocalDate startDate, LocalDate endDate);
+
+    // Quy ước cũ của total_minutes: giá trị < 10000 là phút, còn lại là giây (chỉ dùng cho dòng chưa chuyển đơn vị)
+    String LEGACY_SECONDS = "CASE WHEN COALESCE(s.legacyTotalMinutes, 0) < 10000 " +
+            "THEN COALESCE(s.legacyTotalMinutes, 0) * 60 ELSE s.legacyTotalMinutes END";
+
+    /**
+     * Tạo dòng study_time của ngày nếu chưa có (dựa vào ràng buộc unique (student_id, date)).
+     * Trả về 1 nếu vừa tạo, 0 nếu đã tồn tại.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "study_time"))
+    @Query(value = "INSERT INTO study_time (student_id, date, total_seconds, total_minutes, unit_version, created_at, updated_at) " +
+                   "VALUES (:studentId, :date, 0, 0, " + StudyTime.CURRENT_UNIT_VERSION + ", :now, :now) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("studentId") Long studentId,
+                       @Param("date") LocalDate date,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Cộng thêm số giây vào dòng của ngày trong 1 câu lệnh (không đọc - sửa - ghi).
+     * Dòng cũ chưa được StudyTimeSchemaInitializer chuyển đơn vị thì tính từ total_minutes.
+     * Trả về số dòng được cập nhật.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE StudyTime s SET " +
+           "s.totalSeconds = COALESCE(s.totalSeconds, " + LEGACY_SECONDS + ") + :seconds, " +
+           "s.legacyTotalMinutes = (COALESCE(s.totalSeconds, " + LEGACY_SECONDS + ") + :seconds) / 60, " +
+           "s.unitVersion = " + StudyTime.CURRENT_UNIT_VERSION + ", " +
+           "s.updatedAt = :now " +
+           "WHERE s.student.id = :studentId AND s.date = :date")
+    int addSeconds(@Param("studentId") Long studentId,
+                   @Param("date") LocalDate date,
+                   @Param("seconds") int seconds,
+                   @Param("now") LocalDateTime now);
+
+    /**
+     * Thống kê thời gian học của một học sinh trong 1 truy vấn:
+     * hôm nay, từ weekStart đến today, toàn bộ và số ngày học.
+     */
+    @Query("SELECT COALESCE(SUM(CASE WHEN s.date = :today THEN s.totalSeconds ELSE 0 END), 0) AS todaySeconds, " +
+           "COALESCE(SUM(CASE WHEN s.date BETWEEN :weekStart AND :today THEN s.totalSeconds ELSE 0 END), 0) AS weekSeconds, " +
+           "COALESCE(SUM(s.totalSeconds), 0) AS totalSeconds, " +
+           "COUNT(DISTINCT s.date) AS studyDays " +
+           "FROM StudyTime s WHERE s.student.id = :studentId")
+    StudyStatsView getStudyStats(@Param("studentId") Long studentId,
+                                 @Param("weekStart") LocalDate weekStart,
+                                 @Param("today") LocalDate today);
+
+    interface StudyStatsView {
+        Long getTodaySeconds();
+        Long getWeekSeconds();
+        Long getTotalSeconds();
+        Long getStudyDays();
+    }
 }
 
@@ -0,0 +1,61 @@
+package com.hrmanagement.repository;
+
+import com.hrmanagement.model.StudyTimeRollup;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface StudyTimeRollupRepository extends JpaRepository<StudyTimeRollup, Long> {
+
+    List<StudyTimeRollup> findByStudentIdAndPeriodTypeAndPeriodStartBetweenOrderByPeriodStartAsc(
+            Long studentId, String periodType, LocalDate from, LocalDate to);
+
+    // Cộng thêm số giây vào một dòng rollup, trả về 0 nếu dòng chưa tồn tại
+    @Modifying
+    @Query("UPDATE StudyTimeRollup r SET r.totalSeconds = r.totalSeconds + :seconds, r.updatedAt = :now " +
+           "WHERE r.studentId = :studentId AND r.periodType = :periodType AND r.periodStart = :periodStart")
+    int addSeconds(@Param("studentId") Long studentId,
+                   @Param("periodType") String periodType,
+                   @Param("periodStart") LocalDate periodStart,
+                   @Param("seconds") long seconds,
+                   @Param("now") LocalDateTime now);
+
+    @Modifying
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "study_time_rollup"))
+    @Query(value = "INSERT INTO study_time_rollup (student_id, period_type, period_start, total_seconds, updated_at) " +
+                   "VALUES (:studentId, :periodType, :periodStart, 0, :now) ON CONFLICT DO NOTHING",
+           nativeQuery = true)
+    int insertIfAbsent(@Param("studentId") Long studentId,
+                       @Param("periodType") String periodType,
+                       @Param("periodStart") LocalDate periodStart,
+                       @Param("now") LocalDateTime now);
+
+    // Tổng thời gian học của từng học sinh trong một kỳ, nhiều nhất trước
+    @Query("SELECT r.studentId AS studentId, u.name AS name, u.email AS email, r.totalSeconds AS totalSeconds " +
+           "FROM StudyTimeRollup r, User u WHERE u.id = r.studentId " +
+           "AND r.periodType = :periodType AND r.periodStart = :periodStart " +
+           "ORDER BY r.totalSeconds DESC, r.studentId ASC")
+    List<StudentTotalView> findStudentTotals(@Param("periodType") String periodType,
+                                             @Param("periodStart") LocalDate periodStart);
+
+    @Modifying
+    @Query("DELETE FROM StudyTimeRollup r")
+    int deleteAllRollups();
+
+    interface StudentTotalView {
+        Long getStudentId();
+        String getName();
+        String getEmail();
+        Long getTotalSeconds();
+    }
+}
@@ -4,6 +4,7 @@ import com.hrmanagement.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional; // --- MỚI: Import Optional ---
 
 @Repository
@@ -17,4 +18,7 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // Được AuthService.registerUser() sử dụng
     Boolean existsByEmail(String email);
 
+    // Lấy user theo vai trò (dùng cho bảng xếp hạng học sinh)
+    List<User> findByRoleIgnoreCase(String role);
+
 }
\ No newline at end of file
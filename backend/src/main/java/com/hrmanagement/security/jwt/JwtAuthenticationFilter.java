@@ -1,11 +1,16 @@
 package com.hrmanagement.security.jwt;
 
-import com.hrmanagement.security.services.UserDetailsServiceImpl;
+import com.hrmanagement.security.services.UserPrincipal;
+import com.hrmanagement.security.services.UserPrincipalCache;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -18,11 +23,18 @@ import java.io.IOException;
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
+    // Tên "log" để không che field logger (commons-logging) kế thừa từ GenericFilterBean
+    private static final Logger log = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
+
     @Autowired
     private JwtTokenProvider tokenProvider;
 
     @Autowired
-    private UserDetailsServiceImpl userDetailsService;
+    private UserPrincipalCache principalCache;
+
+    // Bật: so phiên bản token với user (qua cache) để token cũ hết hiệu lực sau khi đổi mật khẩu / xóa user
+    @Value("${jwt.token-version-check:true}")
+    private boolean tokenVersionCheck;
 
     // Lấy JWT từ Header Authorization
     private String getJwtFromRequest(HttpServletRequest request) {
@@ -51,13 +63,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         try {
             String jwt = getJwtFromRequest(request);
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                // Lấy email từ JWT
-                String email = tokenProvider.getEmailFromJWT(jwt);
-
-                // Tải thông tin user từ DB
-                UserDetails userDetails = userDetailsService.loadUserByUsername(email);
-
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.parseClaims(jwt) : null;
+            UserDetails userDetails = claims != null ? resolvePrincipal(claims) : null;
+            if (userDetails != null) {
                 // Tạo đối tượng xác thực
                 UsernamePasswordAuthenticationToken authentication =
                         new UsernamePasswordAuthenticationToken(
@@ -76,4 +84,30 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         filterChain.doFilter(request, response);
     }
+
+    private UserDetails resolvePrincipal(Claims claims) {
+        // Lấy email từ JWT
+        String email = claims.getSubject();
+        Number userId = claims.get(JwtTokenProvider.CLAIM_USER_ID, Number.class);
+        String role = claims.get(JwtTokenProvider.CLAIM_ROLE, String.class);
+
+        // Token cũ chỉ có email: lấy thông tin user từ cache (chỉ truy vấn DB khi chưa có / đã hết hạn)
+        if (userId == null || role == null) {
+            return principalCache.get(email);
+        }
+
+        Number version = claims.get(JwtTokenProvider.CLAIM_TOKEN_VERSION, Number.class);
+        UserPrincipal principal = UserPrincipal.fromClaims(userId.longValue(), email, role,
+                version != null ? version.intValue() : 0);
+
+        if (tokenVersionCheck) {
+            UserPrincipal current = principalCache.get(email);
+            if (!current.getId().equals(principal.getId())
+                    || current.getTokenVersion() != principal.getTokenVersion()) {
+                log.debug("JWT đã bị thu hồi cho user id {}", principal.getId());
+                return null;
+            }
+        }
+        return principal;
+    }
 }
@@ -1,7 +1,11 @@
 package com.hrmanagement.security.jwt;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hrmanagement.security.services.UserPrincipal;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -15,18 +19,46 @@ public class JwtTokenProvider {
 
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
 
+    // Tên các claim thêm vào token ngoài subject (email)
+    public static final String CLAIM_USER_ID = "uid";
+    public static final String CLAIM_ROLE = "role";
+    public static final String CLAIM_TOKEN_VERSION = "ver";
+
     @Value("${jwt.secret}")
     private String jwtSecret;
 
     @Value("${jwt.expiration-ms}")
     private int jwtExpirationMs;
 
+    @Value("${jwt.verified-cache-size:10000}")
+    private long verifiedCacheSize;
+
+    // Key và parser không đổi trong suốt vòng đời ứng dụng nên chỉ tạo 1 lần
+    private SecretKey signingKey;
+    private JwtParser parser;
+
+    // Token đã xác minh chữ ký gần đây (LRU có giới hạn): client gửi lại cùng token không phải verify HS512 lại
+    private Cache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    void init() {
+        signingKey = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        parser = Jwts.parser().verifyWith(signingKey).build();
+        verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(verifiedCacheSize)
+                .build();
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        return signingKey;
     }
 
     // Hàm tạo token
     public String generateToken(Authentication authentication) {
+        if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+            return generateToken(principal);
+        }
+
         // Lấy email từ user đã được xác thực
         String username = authentication.getName();
 
@@ -41,22 +73,54 @@ public class JwtTokenProvider {
             .compact();
     }
 
+    // Hàm tạo token kèm id, role và phiên bản token để filter không phải tải user từ DB
+    public String generateToken(UserPrincipal principal) {
+        Date now = new Date();
+        Date expiryDate = new Date(now.getTime() + jwtExpirationMs);
+
+        return Jwts.builder()
+            .subject(principal.getEmail())
+            .claim(CLAIM_USER_ID, principal.getId())
+            .claim(CLAIM_ROLE, principal.getRole())
+            .claim(CLAIM_TOKEN_VERSION, principal.getTokenVersion())
+            .issuedAt(now)
+            .expiration(expiryDate)
+            .signWith(getSigningKey(), Jwts.SIG.HS512)
+            .compact();
+    }
+
     // Hàm lấy email từ token
     public String getEmailFromJWT(String token) {
-        Claims claims = Jwts.parser()
-            .verifyWith(getSigningKey())  // key để verify token
-            .build()
-            .parseSignedClaims(token)
-            .getPayload();
-
-        return claims.getSubject();
+        Claims claims = parseClaims(token);
+        return claims != null ? claims.getSubject() : null;
     }
 
     // Hàm kiểm tra token có hợp lệ không
     public boolean validateToken(String authToken) {
+        return parseClaims(authToken) != null;
+    }
+
+    // Xác minh chữ ký + hạn dùng (mỗi token chỉ verify 1 lần) và trả về claims, null nếu token không hợp lệ
+    public Claims parseClaims(String authToken) {
+        if (authToken == null) {
+            logger.error("JWT claims string is empty.");
+            return null;
+        }
+        Claims cached = verifiedTokens.getIfPresent(authToken);
+        if (cached != null) {
+            // Chữ ký đã được xác minh, chỉ cần kiểm tra lại hạn dùng
+            Date expiration = cached.getExpiration();
+            if (expiration == null || expiration.after(new Date())) {
+                return cached;
+            }
+            verifiedTokens.invalidate(authToken);
+            logger.error("Expired JWT token");
+            return null;
+        }
         try {
-            Jwts.parser().verifyWith(getSigningKey()).build().parseSignedClaims(authToken);
-            return true;
+            Claims claims = parser.parseSignedClaims(authToken).getPayload();
+            verifiedTokens.put(authToken, claims);
+            return claims;
         } catch (MalformedJwtException ex) {
             logger.error("Invalid JWT token");
         } catch (ExpiredJwtException ex) {
@@ -66,6 +130,6 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             logger.error("JWT claims string is empty.");
         }
-        return false;
+        return null;
     }
 }
\ No newline at end of file
@@ -0,0 +1,73 @@
+package com.hrmanagement.security.services;
+
+import com.hrmanagement.model.User;
+import com.hrmanagement.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Lấy User đang đăng nhập cho các service.
+ * Kết quả được nhớ trong request hiện tại nên mỗi request truy vấn bảng users tối đa 1 lần,
+ * dù đi qua bao nhiêu service. Id/role lấy thẳng từ principal, không cần truy vấn.
+ */
+@Component
+public class CurrentUserProvider {
+
+    private static final String REQUEST_ATTRIBUTE = CurrentUserProvider.class.getName() + ".USER";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public User getCurrentUser() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return loadCurrentUser(); // Không nằm trong request (job chạy nền...)
+        }
+        User user = (User) attributes.getAttribute(REQUEST_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (user == null) {
+            user = loadCurrentUser();
+            attributes.setAttribute(REQUEST_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    public Long getCurrentUserId() {
+        Object principal = getPrincipal();
+        if (principal instanceof UserPrincipal userPrincipal) {
+            return userPrincipal.getId();
+        }
+        return getCurrentUser().getId();
+    }
+
+    public String getCurrentRole() {
+        Object principal = getPrincipal();
+        if (principal instanceof UserPrincipal userPrincipal) {
+            return userPrincipal.getRole();
+        }
+        return getCurrentUser().getRole();
+    }
+
+    private User loadCurrentUser() {
+        Object principal = getPrincipal();
+        if (principal instanceof UserPrincipal userPrincipal && userPrincipal.getId() != null) {
+            return userRepository.findById(userPrincipal.getId())
+                    .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng với email: " + userPrincipal.getEmail()));
+        }
+        String username;
+        if (principal instanceof UserDetails) {
+            username = ((UserDetails) principal).getUsername();
+        } else {
+            username = principal.toString();
+        }
+        return userRepository.findByEmail(username)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng với email: " + username));
+    }
+
+    private Object getPrincipal() {
+        return SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+    }
+}
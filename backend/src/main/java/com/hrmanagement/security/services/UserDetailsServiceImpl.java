@@ -8,8 +8,6 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import java.util.ArrayList;
-import java.util.List;
 
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
@@ -24,17 +22,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Không tìm thấy user với email: " + email));
 
-        // Tạo authorities từ role
-        List<org.springframework.security.core.authority.SimpleGrantedAuthority> authorities = new ArrayList<>();
-        if (user.getRole() != null) {
-            authorities.add(new org.springframework.security.core.authority.SimpleGrantedAuthority("ROLE_" + user.getRole().toUpperCase()));
-        }
-
-        // Trả về đối tượng UserDetails mà Spring Security hiểu
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                authorities
-        );
+        // Trả về đối tượng UserDetails mà Spring Security hiểu (authorities tạo từ role)
+        return UserPrincipal.withPassword(user);
     }
 }
\ No newline at end of file
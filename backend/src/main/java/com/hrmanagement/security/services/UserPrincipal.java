@@ -0,0 +1,95 @@
+package com.hrmanagement.security.services;
+
+import com.hrmanagement.model.User;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Thông tin đăng nhập gọn nhẹ (id, email, role) thay cho entity User.
+ * Bản được cache chỉ dùng để xác thực JWT nên không giữ mật khẩu.
+ */
+public final class UserPrincipal implements UserDetails, CredentialsContainer {
+
+    private final Long id;
+    private final String email;
+    private final String role;
+    private final int tokenVersion;
+    private final List<GrantedAuthority> authorities;
+    private String password;
+
+    private UserPrincipal(Long id, String email, String role, int tokenVersion, String password) {
+        this.id = id;
+        this.email = email;
+        this.role = role;
+        this.tokenVersion = tokenVersion;
+        this.password = password;
+        this.authorities = role != null
+                ? List.of(new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()))
+                : List.of();
+    }
+
+    // Dùng cho đăng nhập (cần mật khẩu để so khớp)
+    public static UserPrincipal withPassword(User user) {
+        return new UserPrincipal(user.getId(), user.getEmail(), user.getRole(), tokenVersion(user), user.getPassword());
+    }
+
+    // Dùng cho xác thực JWT (không cần mật khẩu)
+    public static UserPrincipal of(User user) {
+        return new UserPrincipal(user.getId(), user.getEmail(), user.getRole(), tokenVersion(user), null);
+    }
+
+    // Dựng lại từ các claim của JWT đã được xác minh chữ ký, không cần truy vấn DB
+    public static UserPrincipal fromClaims(Long id, String email, String role, int tokenVersion) {
+        return new UserPrincipal(id, email, role, tokenVersion, null);
+    }
+
+    private static int tokenVersion(User user) {
+        return user.getTokenVersion() != null ? user.getTokenVersion() : 0;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public String getRole() {
+        return role;
+    }
+
+    public int getTokenVersion() {
+        return tokenVersion;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return password;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public void eraseCredentials() {
+        password = null;
+    }
+
+    @Override
+    public String toString() {
+        return email;
+    }
+}
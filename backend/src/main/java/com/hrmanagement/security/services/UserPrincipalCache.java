@@ -0,0 +1,45 @@
+package com.hrmanagement.security.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hrmanagement.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Cache principal theo email cho JwtAuthenticationFilter:
+ * request có JWT hợp lệ không phải truy vấn bảng users nếu đã có trong cache.
+ * Có giới hạn số phần tử và TTL; UserService xóa entry khi user bị sửa/xóa.
+ */
+@Component
+public class UserPrincipalCache {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    private final Cache<String, UserPrincipal> cache;
+
+    public UserPrincipalCache(@Value("${security.principal-cache.max-size:10000}") long maxSize,
+                              @Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public UserPrincipal get(String email) {
+        return cache.get(email, key -> userRepository.findByEmail(key)
+                .map(UserPrincipal::of)
+                .orElseThrow(() -> new UsernameNotFoundException("Không tìm thấy user với email: " + key)));
+    }
+
+    public void evict(String email) {
+        if (email != null) {
+            cache.invalidate(email);
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package com.hrmanagement.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hrmanagement.repository.AssignmentQuestionRepository;
+import com.hrmanagement.repository.AssignmentQuestionRepository.AnswerKeyView;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Cache đáp án đúng theo assignment cho việc tự động chấm MCQ.
+ * Mỗi answer key là mảng id câu hỏi đã sắp xếp + mảng đáp án tương ứng (tìm bằng binary search),
+ * AssignmentService xóa entry khi câu hỏi bị sửa hoặc assignment bị xóa.
+ */
+@Component
+public class AnswerKeyCache {
+
+    @Autowired
+    private AssignmentQuestionRepository assignmentQuestionRepository;
+
+    private final Cache<Long, AnswerKey> cache;
+
+    public AnswerKeyCache(@Value("${grading.answer-key-cache.max-size:1000}") long maxSize,
+                          @Value("${grading.answer-key-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public AnswerKey get(Long assignmentId) {
+        return cache.get(assignmentId, id -> AnswerKey.of(assignmentQuestionRepository.findAnswerKeyByAssignmentId(id)));
+    }
+
+    // Xóa ngay và xóa lại sau commit để request đọc song song không giữ lại đáp án cũ
+    public void evict(Long assignmentId) {
+        cache.invalidate(assignmentId);
+        TransactionCallbacks.afterCommit(() -> cache.invalidate(assignmentId));
+    }
+
+    public static final class AnswerKey {
+        private final long[] questionIds;
+        private final String[] correctAnswers;
+
+        private AnswerKey(long[] questionIds, String[] correctAnswers) {
+            this.questionIds = questionIds;
+            this.correctAnswers = correctAnswers;
+        }
+
+        static AnswerKey of(List<AnswerKeyView> rows) {
+            List<AnswerKeyView> sorted = rows.stream().sorted(Comparator.comparing(AnswerKeyView::getId)).toList();
+            long[] ids = new long[sorted.size()];
+            String[] answers = new String[sorted.size()];
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = sorted.get(i).getId();
+                answers[i] = sorted.get(i).getCorrectAnswer();
+            }
+            return new AnswerKey(ids, answers);
+        }
+
+        public int size() {
+            return questionIds.length;
+        }
+
+        /**
+         * Chấm bài trong khi đọc JSON {"<questionId>": "<đáp án>", ...}, không dựng Map trung gian.
+         * Điểm = số câu đúng / tổng số câu * 10. Trả về null nếu không chấm được
+         * (không có câu hỏi, nội dung không phải object JSON, giá trị là object/array...) để giáo viên chấm tay.
+         * Key trùng thì lấy giá trị sau cùng, giống khi đọc vào Map.
+         */
+        public Double grade(JsonFactory jsonFactory, String content) {
+            if (questionIds.length == 0 || content == null) return null;
+
+            boolean[] correct = new boolean[questionIds.length];
+            try (JsonParser parser = jsonFactory.createParser(content)) {
+                if (parser.nextToken() != JsonToken.START_OBJECT) return null;
+
+                JsonToken token;
+                while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+                    int index = indexOf(parser.currentName());
+                    JsonToken valueToken = parser.nextToken();
+                    if (valueToken == JsonToken.START_OBJECT || valueToken == JsonToken.START_ARRAY) {
+                        return null;
+                    }
+                    if (index >= 0) {
+                        // Số / boolean được so sánh theo dạng chuỗi, null là chưa trả lời
+                        String answer = valueToken == JsonToken.VALUE_NULL ? null : parser.getText();
+                        correct[index] = answer != null && answer.equals(correctAnswers[index]);
+                    }
+                }
+                if (token != JsonToken.END_OBJECT) return null;
+            } catch (IOException e) {
+                return null;
+            }
+
+            int correctCount = 0;
+            for (boolean c : correct) {
+                if (c) correctCount++;
+            }
+            return (double) correctCount / questionIds.length * 10.0;
+        }
+
+        // Chỉ nhận key là số nguyên dạng chuẩn (giống Long.toString của id), không cấp phát
+        private int indexOf(String key) {
+            int length = key.length();
+            if (length == 0 || length > 18 || (length > 1 && key.charAt(0) == '0')) return -1;
+            long id = 0;
+            for (int i = 0; i < length; i++) {
+                char c = key.charAt(i);
+                if (c < '0' || c > '9') return -1;
+                id = id * 10 + (c - '0');
+            }
+            int index = Arrays.binarySearch(questionIds, id);
+            return index >= 0 ? index : -1;
+        }
+    }
+}
@@ -9,14 +9,12 @@ import com.hrmanagement.model.User;
 import com.hrmanagement.repository.AssignmentQuestionRepository;
 import com.hrmanagement.repository.AssignmentRepository;
 import com.hrmanagement.repository.LessonRepository;
-import com.hrmanagement.repository.UserRepository;
+import com.hrmanagement.security.services.CurrentUserProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
+import java.util.*;
 
 @Service
 public class AssignmentService {
@@ -28,7 +26,7 @@ public class AssignmentService {
     private LessonRepository lessonRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private CurrentUserProvider currentUserProvider;
 
     @Autowired
     private AssignmentQuestionRepository assignmentQuestionRepository;
@@ -36,20 +34,11 @@ public class AssignmentService {
     @Autowired
     private ObjectMapper objectMapper;
 
-    private User getCurrentUser() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        String username;
-        if (principal instanceof UserDetails) {
-            username = ((UserDetails) principal).getUsername();
-        } else {
-            username = principal.toString();
-        }
-        return userRepository.findByEmail(username)
-                .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng với email: " + username));
-    }
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
 
     public List<Assignment> getStudentAssignments() {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         if (!"student".equalsIgnoreCase(currentUser.getRole())) {
             throw new RuntimeException("Chỉ học sinh mới có thể xem bài tập của mình.");
         }
@@ -57,7 +46,7 @@ public class AssignmentService {
     }
 
     public List<Assignment> getTeacherAssignments() {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         if (!"teacher".equalsIgnoreCase(currentUser.getRole()) && !"admin".equalsIgnoreCase(currentUser.getRole())) {
             throw new RuntimeException("Chỉ giáo viên hoặc admin mới có thể xem bài tập.");
         }
@@ -66,7 +55,7 @@ public class AssignmentService {
 
     @Transactional
     public Assignment createAssignment(Assignment assignment, List<AssignmentQuestion> questions) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         if (!"teacher".equalsIgnoreCase(currentUser.getRole()) && !"admin".equalsIgnoreCase(currentUser.getRole())) {
             throw new RuntimeException("Chỉ giáo viên hoặc admin mới có thể tạo bài tập.");
         }
@@ -81,26 +70,16 @@ public class AssignmentService {
 
         Assignment savedAssignment = assignmentRepository.save(assignment);
 
-        // Save questions
+        // Save questions (id lấy từ sequence nên các INSERT được gộp thành JDBC batch)
         if (questions != null && !questions.isEmpty()) {
             for (int i = 0; i < questions.size(); i++) {
                 AssignmentQuestion question = questions.get(i);
+                question.setId(null);
                 question.setAssignment(savedAssignment);
                 question.setOrderIndex(i + 1);
-                
-                // Convert options array to JSON string if needed
-                if (question.getOptions() != null && !question.getOptions().startsWith("[")) {
-                    // If options is not JSON, assume it's a single string and wrap it
-                    try {
-                        List<String> optionsList = objectMapper.readValue(question.getOptions(), new TypeReference<List<String>>() {});
-                        question.setOptions(objectMapper.writeValueAsString(optionsList));
-                    } catch (Exception e) {
-                        // If parsing fails, assume it's already a JSON string or handle accordingly
-                    }
-                }
-                
-                assignmentQuestionRepository.save(question);
+                normalizeOptions(question);
             }
+            assignmentQuestionRepository.saveAll(questions);
         }
 
         return savedAssignment;
@@ -108,7 +87,7 @@ public class AssignmentService {
 
     @Transactional
     public Assignment updateAssignment(Long id, Assignment assignmentDetails, List<AssignmentQuestion> questions) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         Assignment assignment = assignmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy bài tập để cập nhật"));
 
@@ -128,28 +107,9 @@ public class AssignmentService {
 
         Assignment savedAssignment = assignmentRepository.save(assignment);
 
-        // Update questions: delete old ones and save new ones
-        if (questions != null) {
-            assignmentQuestionRepository.deleteByAssignment(savedAssignment);
-            
-            for (int i = 0; i < questions.size(); i++) {
-                AssignmentQuestion question = questions.get(i);
-                question.setAssignment(savedAssignment);
-                question.setOrderIndex(i + 1);
-                question.setId(null); // Ensure it's a new question
-                
-                // Convert options array to JSON string if needed
-                if (question.getOptions() != null && !question.getOptions().startsWith("[")) {
-                    try {
-                        List<String> optionsList = objectMapper.readValue(question.getOptions(), new TypeReference<List<String>>() {});
-                        question.setOptions(objectMapper.writeValueAsString(optionsList));
-                    } catch (Exception e) {
-                        // If parsing fails, assume it's already a JSON string
-                    }
-                }
-                
-                assignmentQuestionRepository.save(question);
-            }
+        // Update questions: chỉ ghi các câu hỏi thay đổi, giữ nguyên id câu hỏi cũ
+        if (questions != null && updateQuestions(savedAssignment, questions)) {
+            answerKeyCache.evict(savedAssignment.getId());
         }
 
         return savedAssignment;
@@ -161,7 +121,7 @@ public class AssignmentService {
 
     @Transactional
     public void deleteAssignment(Long id) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         Assignment assignment = assignmentRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy bài tập để xóa"));
 
@@ -170,5 +130,105 @@ public class AssignmentService {
         }
 
         assignmentRepository.delete(assignment);
+        answerKeyCache.evict(id);
+    }
+
+    /**
+     * So sánh danh sách câu hỏi gửi lên với câu hỏi hiện có rồi chỉ ghi phần khác nhau:
+     * - ghép theo id nếu câu hỏi gửi kèm id của assignment này, câu hỏi không có id thì ghép theo thứ tự (orderIndex);
+     *   id không thuộc assignment (vd. id tạm của client) được coi là câu hỏi mới
+     * - câu hỏi ghép được mà có thay đổi thì UPDATE, câu hỏi mới thì INSERT, câu hỏi cũ không còn thì DELETE
+     * Giữ id giúp các bài nộp cũ ({"questionId": "answer"}) vẫn chấm / hiển thị đúng sau khi sửa.
+     * Hibernate gộp các INSERT / UPDATE thành JDBC batch khi flush, DELETE chạy 1 câu theo danh sách id.
+     * Trả về true nếu có thay đổi.
+     */
+    private boolean updateQuestions(Assignment assignment, List<AssignmentQuestion> questions) {
+        List<AssignmentQuestion> existing = assignmentQuestionRepository.findByAssignmentIdOrderByOrderIndexAsc(assignment.getId());
+        Map<Long, AssignmentQuestion> existingById = new HashMap<>();
+        Map<Integer, AssignmentQuestion> existingByOrder = new HashMap<>();
+        for (AssignmentQuestion question : existing) {
+            existingById.put(question.getId(), question);
+            if (question.getOrderIndex() != null) {
+                existingByOrder.putIfAbsent(question.getOrderIndex(), question);
+            }
+        }
+
+        // 1. Ghép theo id trước để câu hỏi có id không bị câu hỏi khác ghép nhầm theo thứ tự
+        AssignmentQuestion[] matched = new AssignmentQuestion[questions.size()];
+        Set<Long> claimed = new HashSet<>();
+        for (int i = 0; i < questions.size(); i++) {
+            Long id = questions.get(i).getId();
+            if (id != null && existingById.containsKey(id) && claimed.add(id)) {
+                matched[i] = existingById.get(id);
+            }
+        }
+        // 2. Câu hỏi không gửi id: ghép với câu hỏi cũ cùng vị trí
+        for (int i = 0; i < questions.size(); i++) {
+            if (matched[i] != null || questions.get(i).getId() != null) continue;
+            AssignmentQuestion candidate = existingByOrder.get(i + 1);
+            if (candidate != null && claimed.add(candidate.getId())) {
+                matched[i] = candidate;
+            }
+        }
+
+        List<AssignmentQuestion> toSave = new ArrayList<>();
+        for (int i = 0; i < questions.size(); i++) {
+            AssignmentQuestion incoming = questions.get(i);
+            incoming.setOrderIndex(i + 1);
+            normalizeOptions(incoming);
+
+            AssignmentQuestion target = matched[i];
+            if (target == null) {
+                incoming.setId(null);
+                incoming.setAssignment(assignment);
+                toSave.add(incoming);
+            } else if (copyQuestionFields(incoming, target)) {
+                toSave.add(target);
+            }
+        }
+
+        List<Long> toDelete = existing.stream()
+                .map(AssignmentQuestion::getId)
+                .filter(id -> !claimed.contains(id))
+                .toList();
+
+        if (!toDelete.isEmpty()) {
+            assignmentQuestionRepository.deleteAllByIdInBatch(toDelete);
+        }
+        if (!toSave.isEmpty()) {
+            assignmentQuestionRepository.saveAll(toSave);
+        }
+        return !toDelete.isEmpty() || !toSave.isEmpty();
+    }
+
+    // Chép nội dung câu hỏi vào entity đang quản lý, trả về true nếu có trường thay đổi
+    private static boolean copyQuestionFields(AssignmentQuestion source, AssignmentQuestion target) {
+        boolean changed = !Objects.equals(source.getQuestion(), target.getQuestion())
+                || !Objects.equals(source.getOptions(), target.getOptions())
+                || !Objects.equals(source.getCorrectAnswer(), target.getCorrectAnswer())
+                || !Objects.equals(source.getExplanation(), target.getExplanation())
+                || !Objects.equals(source.getQuestionType(), target.getQuestionType())
+                || !Objects.equals(source.getOrderIndex(), target.getOrderIndex());
+        if (changed) {
+            target.setQuestion(source.getQuestion());
+            target.setOptions(source.getOptions());
+            target.setCorrectAnswer(source.getCorrectAnswer());
+            target.setExplanation(source.getExplanation());
+            target.setQuestionType(source.getQuestionType());
+            target.setOrderIndex(source.getOrderIndex());
+        }
+        return changed;
+    }
+
+    // Convert options array to JSON string if needed
+    private void normalizeOptions(AssignmentQuestion question) {
+        if (question.getOptions() != null && !question.getOptions().startsWith("[")) {
+            try {
+                List<String> optionsList = objectMapper.readValue(question.getOptions(), new TypeReference<List<String>>() {});
+                question.setOptions(objectMapper.writeValueAsString(optionsList));
+            } catch (Exception e) {
+                // If parsing fails, assume it's already a JSON string
+            }
+        }
     }
 }
@@ -1,24 +1,27 @@
 package com.hrmanagement.service;
 
-import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hrmanagement.model.Assignment;
-import com.hrmanagement.model.AssignmentQuestion;
 import com.hrmanagement.model.AssignmentSubmission;
 import com.hrmanagement.model.User;
-import com.hrmanagement.repository.AssignmentQuestionRepository;
+import com.hrmanagement.payload.request.BulkGradeRequest;
+import com.hrmanagement.payload.response.SubmissionGradeResult;
+import com.hrmanagement.payload.response.SubmissionStatusResponse;
+import com.hrmanagement.payload.response.SubmissionSummaryResponse;
 import com.hrmanagement.repository.AssignmentRepository;
 import com.hrmanagement.repository.AssignmentSubmissionRepository;
-import com.hrmanagement.repository.UserRepository;
+import com.hrmanagement.security.services.CurrentUserProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.*;
 
 @Service
 public class AssignmentSubmissionService {
@@ -30,30 +33,30 @@ public class AssignmentSubmissionService {
     private AssignmentRepository assignmentRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private CurrentUserProvider currentUserProvider;
 
     @Autowired
-    private AssignmentQuestionRepository assignmentQuestionRepository;
+    private AnswerKeyCache answerKeyCache;
 
     @Autowired
     private ObjectMapper objectMapper;
 
-    private User getCurrentUser() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        String username;
-        if (principal instanceof UserDetails) {
-            username = ((UserDetails) principal).getUsername();
-        } else {
-            username = principal.toString();
-        }
-        return userRepository.findByEmail(username)
-                .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng với email: " + username));
-    }
+    @Autowired
+    private SubmissionGradingQueue gradingQueue;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private static final int MAX_BULK_GRADES = 500;
+
+    private static final String BULK_GRADE_SQL = "UPDATE assignment_submissions " +
+            "SET score = ?, grading_status = '" + AssignmentSubmission.GRADING_MANUAL + "', updated_at = ? " +
+            "WHERE id = ? AND assignment_id = ?";
 
     @Transactional
     public AssignmentSubmission submitAssignment(Long assignmentId, AssignmentSubmission submission) {
-        User currentUser = getCurrentUser();
-        if (!"student".equals(currentUser.getRole())) {
+        User currentUser = currentUserProvider.getCurrentUser();
+        if (!"student".equalsIgnoreCase(currentUser.getRole())) {
             throw new RuntimeException("Chỉ học sinh mới được nộp bài");
         }
 
@@ -75,38 +78,45 @@ public class AssignmentSubmissionService {
             finalSubmission.setStudent(currentUser);
         }
 
-        // Tự động chấm điểm cho MCQ
-        try {
-            List<AssignmentQuestion> questions = assignmentQuestionRepository.findByAssignmentIdOrderByOrderIndexAsc(assignmentId);
-            if (questions != null && !questions.isEmpty() && submission.getContent() != null) {
-                Map<String, String> answers = objectMapper.readValue(submission.getContent(), new TypeReference<Map<String, String>>() {});
-                
-                int correctCount = 0;
-                int totalQuestions = questions.size();
-                
-                for (AssignmentQuestion question : questions) {
-                    String questionId = question.getId().toString();
-                    String studentAnswer = answers.get(questionId);
-                    
-                    if (studentAnswer != null && studentAnswer.equals(question.getCorrectAnswer())) {
-                        correctCount++;
-                    }
-                }
-                
-                // Tính điểm: (số câu đúng / tổng số câu) * 10
-                double score = (double) correctCount / totalQuestions * 10.0;
-                finalSubmission.setScore(score);
-            }
-        } catch (Exception e) {
-            // Nếu không parse được JSON hoặc có lỗi, không tự động chấm điểm
-            // Giáo viên sẽ chấm thủ công
+        if (gradingQueue.isEnabled()) {
+            // Chỉ lưu bài, worker chấm sau khi commit (xem SubmissionGradingQueue)
+            finalSubmission.setGradingStatus(AssignmentSubmission.GRADING_PENDING);
+            AssignmentSubmission saved = submissionRepository.save(finalSubmission);
+            gradingQueue.enqueueAfterCommit(saved.getId());
+            return saved;
         }
 
+        // Tự động chấm điểm cho MCQ: (số câu đúng / tổng số câu) * 10
+        // Nếu không parse được JSON, không tự động chấm điểm - giáo viên sẽ chấm thủ công
+        Double score = answerKeyCache.get(assignmentId).grade(objectMapper.getFactory(), submission.getContent());
+        if (score != null) {
+            finalSubmission.setScore(score);
+        }
+        finalSubmission.setGradingStatus(score != null ? AssignmentSubmission.GRADING_GRADED : AssignmentSubmission.GRADING_MANUAL);
+
         return submissionRepository.save(finalSubmission);
     }
 
+    public boolean isAsyncGrading() {
+        return gradingQueue.isEnabled();
+    }
+
+    // Trạng thái chấm của bài nộp (học sinh theo dõi sau khi nộp bất đồng bộ)
+    public SubmissionStatusResponse getSubmissionStatus(Long submissionId) {
+        User currentUser = currentUserProvider.getCurrentUser();
+        AssignmentSubmission submission = submissionRepository.findById(submissionId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy submission"));
+
+        if (!submission.getStudent().getId().equals(currentUser.getId()) && !"admin".equalsIgnoreCase(currentUser.getRole())) {
+            throw new RuntimeException("Không có quyền xem bài nộp này");
+        }
+
+        return new SubmissionStatusResponse(submission.getId(), submission.getGradingStatus(),
+                submission.getScore(), submission.getSubmittedAt(), submission.getUpdatedAt());
+    }
+
     public AssignmentSubmission getSubmissionByAssignment(Long assignmentId) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         Assignment assignment = assignmentRepository.findById(assignmentId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy assignment"));
 
@@ -114,31 +124,103 @@ public class AssignmentSubmissionService {
                 .orElseThrow(() -> new RuntimeException("Chưa nộp bài cho assignment này"));
     }
 
-    public List<AssignmentSubmission> getSubmissionsByAssignment(Long assignmentId) {
-        User currentUser = getCurrentUser();
-        Assignment assignment = assignmentRepository.findById(assignmentId)
+    /**
+     * Danh sách bài nộp của một assignment cho giáo viên, đọc bằng 1 truy vấn join (không lazy load từng dòng).
+     * pageable = Pageable.unpaged() để lấy tất cả; includeContent = false để bỏ cột nội dung bài làm.
+     */
+    public Page<SubmissionSummaryResponse> getSubmissionsByAssignment(Long assignmentId, Pageable pageable, boolean includeContent) {
+        User currentUser = currentUserProvider.getCurrentUser();
+        Long teacherId = assignmentRepository.findTeacherIdById(assignmentId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy assignment"));
 
         // Kiểm tra quyền
-        if (!assignment.getTeacher().getId().equals(currentUser.getId()) && !"admin".equals(currentUser.getRole())) {
+        if (!teacherId.equals(currentUser.getId()) && !"admin".equalsIgnoreCase(currentUser.getRole())) {
             throw new RuntimeException("Chỉ giáo viên của assignment này mới được xem submissions");
         }
 
-        return submissionRepository.findByAssignment(assignment);
+        return includeContent
+                ? submissionRepository.findSummariesByAssignmentId(assignmentId, pageable)
+                : submissionRepository.findSummariesWithoutContentByAssignmentId(assignmentId, pageable);
     }
 
     public AssignmentSubmission gradeSubmission(Long submissionId, Double score) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         AssignmentSubmission submission = submissionRepository.findById(submissionId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy submission"));
 
         // Kiểm tra quyền
-        if (!submission.getAssignment().getTeacher().getId().equals(currentUser.getId()) && !"admin".equals(currentUser.getRole())) {
+        if (!submission.getAssignment().getTeacher().getId().equals(currentUser.getId()) && !"admin".equalsIgnoreCase(currentUser.getRole())) {
             throw new RuntimeException("Chỉ giáo viên mới được chấm điểm");
         }
 
         submission.setScore(score);
+        submission.setGradingStatus(AssignmentSubmission.GRADING_MANUAL);
         return submissionRepository.save(submission);
     }
-}
 
+    /**
+     * Chấm nhiều bài nộp của một assignment: kiểm tra quyền 1 lần theo assignment
+     * rồi ghi toàn bộ điểm bằng 1 JDBC batch. Trả về kết quả theo từng bài, theo thứ tự gửi lên;
+     * bài không thuộc assignment hoặc điểm không hợp lệ được bỏ qua, không làm hỏng cả lượt chấm.
+     * Một submissionId gửi nhiều lần thì lấy điểm sau cùng.
+     */
+    @Transactional
+    public List<SubmissionGradeResult> gradeSubmissions(Long assignmentId, BulkGradeRequest request) {
+        User currentUser = currentUserProvider.getCurrentUser();
+        Long teacherId = assignmentRepository.findTeacherIdById(assignmentId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy assignment"));
+        if (!teacherId.equals(currentUser.getId()) && !"admin".equalsIgnoreCase(currentUser.getRole())) {
+            throw new RuntimeException("Chỉ giáo viên của assignment này mới được chấm điểm");
+        }
+        if (request == null || request.getGrades() == null || request.getGrades().isEmpty()) {
+            return List.of();
+        }
+        if (request.getGrades().size() > MAX_BULK_GRADES) {
+            throw new RuntimeException("Tối đa " + MAX_BULK_GRADES + " bài trong một lượt chấm.");
+        }
+
+        List<BulkGradeRequest.Item> items = request.getGrades();
+        SubmissionGradeResult[] results = new SubmissionGradeResult[items.size()];
+
+        // Vị trí lần gửi cuối cùng của mỗi bài hợp lệ; bài không hợp lệ có kết quả ngay
+        Map<Long, Integer> lastIndex = new LinkedHashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            BulkGradeRequest.Item item = items.get(i);
+            Long submissionId = item != null ? item.getSubmissionId() : null;
+            Double score = item != null ? item.getScore() : null;
+            if (submissionId == null) {
+                results[i] = new SubmissionGradeResult(null, score, SubmissionGradeResult.INVALID, "Thiếu submissionId");
+            } else if (score == null || score.isNaN() || score.isInfinite() || score < 0) {
+                results[i] = new SubmissionGradeResult(submissionId, score, SubmissionGradeResult.INVALID, "Điểm không hợp lệ");
+            } else {
+                Integer previous = lastIndex.put(submissionId, i);
+                if (previous != null) {
+                    results[previous] = new SubmissionGradeResult(submissionId, items.get(previous).getScore(),
+                            SubmissionGradeResult.INVALID, "Bị thay bằng điểm gửi sau cho cùng bài nộp");
+                }
+            }
+        }
+
+        List<Integer> toUpdate = new ArrayList<>(lastIndex.values());
+        if (!toUpdate.isEmpty()) {
+            Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+            int[][] counts = jdbcTemplate.batchUpdate(BULK_GRADE_SQL, toUpdate, toUpdate.size(), (ps, i) -> {
+                ps.setDouble(1, items.get(i).getScore());
+                ps.setTimestamp(2, now);
+                ps.setLong(3, items.get(i).getSubmissionId());
+                ps.setLong(4, assignmentId);
+            });
+            int[] updateCounts = counts.length > 0 ? counts[0] : new int[0];
+            for (int k = 0; k < toUpdate.size(); k++) {
+                BulkGradeRequest.Item item = items.get(toUpdate.get(k));
+                // SUCCESS_NO_INFO: driver không trả số dòng, coi như đã cập nhật
+                boolean updated = updateCounts[k] > 0 || updateCounts[k] == Statement.SUCCESS_NO_INFO;
+                results[toUpdate.get(k)] = updated
+                        ? new SubmissionGradeResult(item.getSubmissionId(), item.getScore(), SubmissionGradeResult.UPDATED, null)
+                        : new SubmissionGradeResult(item.getSubmissionId(), item.getScore(), SubmissionGradeResult.NOT_FOUND,
+                                "Không tìm thấy submission trong assignment này");
+            }
+        }
+        return Arrays.asList(results);
+    }
+}
@@ -30,6 +30,9 @@ public class AuthService {
     @Autowired
     private JwtTokenProvider jwtTokenProvider;
 
+    @Autowired
+    private RankingService rankingService;
+
     // Logic Đăng nhập
     public AuthResponse loginUser(LoginRequest loginRequest) {
         // 1. Xác thực email và mật khẩu
@@ -72,6 +75,7 @@ public class AuthService {
 
         // 3. Lưu User vào DB
         User savedUser = userRepository.save(user);
+        rankingService.addStudent(savedUser);
 
         // 4. Tự động đăng nhập cho người dùng mới
         Authentication authentication = authenticationManager.authenticate(
@@ -3,10 +3,8 @@ package com.hrmanagement.service;
 import com.hrmanagement.model.CalendarEvent;
 import com.hrmanagement.model.User;
 import com.hrmanagement.repository.CalendarEventRepository;
-import com.hrmanagement.repository.UserRepository;
+import com.hrmanagement.security.services.CurrentUserProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -19,22 +17,10 @@ public class CalendarService {
     private CalendarEventRepository calendarEventRepository;
 
     @Autowired
-    private UserRepository userRepository;
-
-    private User getCurrentUser() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        String username;
-        if (principal instanceof UserDetails) {
-            username = ((UserDetails) principal).getUsername();
-        } else {
-            username = principal.toString();
-        }
-        return userRepository.findByEmail(username)
-                .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng với email: " + username));
-    }
+    private CurrentUserProvider currentUserProvider;
 
     public List<CalendarEvent> getAllEvents() {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         
         // Students see their personal events + events assigned to "all" (from teachers/admins)
         // Query: (user_id = student.id) OR (assignedTo = "all")
@@ -56,7 +42,7 @@ public class CalendarService {
 
     @Transactional
     public CalendarEvent createEvent(CalendarEvent event) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         
         // Students can only create personal events
         if ("student".equalsIgnoreCase(currentUser.getRole())) {
@@ -93,7 +79,7 @@ public class CalendarService {
 
     @Transactional
     public CalendarEvent updateEvent(Long id, CalendarEvent eventDetails) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         CalendarEvent event = calendarEventRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy sự kiện để cập nhật"));
 
@@ -123,7 +109,7 @@ public class CalendarService {
 
     @Transactional
     public void deleteEvent(Long id) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         CalendarEvent event = calendarEventRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy sự kiện để xóa"));
 
@@ -3,16 +3,20 @@ package com.hrmanagement.service;
 import com.hrmanagement.model.Lesson;
 import com.hrmanagement.model.LessonCheckpoint;
 import com.hrmanagement.model.User;
+import com.hrmanagement.payload.response.CheckpointAnswerResponse;
+import com.hrmanagement.payload.response.CheckpointResponse;
+import com.hrmanagement.repository.CheckpointAnswerRepository;
 import com.hrmanagement.repository.LessonCheckpointRepository;
 import com.hrmanagement.repository.LessonRepository;
-import com.hrmanagement.repository.UserRepository;
+import com.hrmanagement.security.services.CurrentUserProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class CheckpointService {
@@ -24,27 +28,68 @@ public class CheckpointService {
     private LessonRepository lessonRepository;
 
     @Autowired
-    private UserRepository userRepository;
-
-    private User getCurrentUser() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        String username;
-        if (principal instanceof UserDetails) {
-            username = ((UserDetails) principal).getUsername();
-        } else {
-            username = principal.toString();
-        }
-        return userRepository.findByEmail(username)
-                .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng với email: " + username));
+    private CurrentUserProvider currentUserProvider;
+
+    @Autowired
+    private CheckpointTimelineCache timelineCache;
+
+    @Autowired
+    private ContentVersionRegistry contentVersions;
+
+    @Autowired
+    private CheckpointAnswerRepository answerRepository;
+
+    @Autowired
+    private ProgressService progressService;
+
+    // Học sinh và giáo viên nhận response khác nhau (có / không có đáp án) nên ETag khác nhau
+    public String getCheckpointsEtag(Long lessonId) {
+        String role = currentUserProvider.getCurrentRole();
+        boolean includeAnswers = "teacher".equalsIgnoreCase(role) || "admin".equalsIgnoreCase(role);
+        return contentVersions.lessonEtag(lessonId, "checkpoints", includeAnswers ? "answers" : "public");
+    }
+
+    // Timeline checkpoint từ cache; học sinh không nhận đáp án đúng (chấm ở server qua answerCheckpoint)
+    public List<CheckpointResponse> getCheckpointsByLessonId(Long lessonId) {
+        String role = currentUserProvider.getCurrentRole();
+        boolean includeAnswers = "teacher".equalsIgnoreCase(role) || "admin".equalsIgnoreCase(role);
+        return timelineCache.get(lessonId).toResponses(includeAnswers);
     }
 
-    public List<LessonCheckpoint> getCheckpointsByLessonId(Long lessonId) {
-        return checkpointRepository.findByLessonId(lessonId);
+    /**
+     * Chấm câu trả lời checkpoint từ timeline trong cache (không truy vấn checkpoint),
+     * lưu câu trả lời rồi tính lại số checkpoint đã hoàn thành của bài học từ các câu đã trả lời.
+     */
+    @Transactional
+    public CheckpointAnswerResponse answerCheckpoint(Long lessonId, Long checkpointId, String answer) {
+        User currentUser = currentUserProvider.getCurrentUser();
+        if (!"student".equalsIgnoreCase(currentUser.getRole())) {
+            throw new RuntimeException("Chỉ học sinh mới có thể trả lời checkpoint.");
+        }
+        if (answer == null || answer.trim().isEmpty()) {
+            throw new RuntimeException("Vui lòng chọn đáp án.");
+        }
+
+        CheckpointTimelineCache.CheckpointTimeline timeline = timelineCache.get(lessonId);
+        CheckpointTimelineCache.Entry checkpoint = timeline.find(checkpointId);
+        if (checkpoint == null) {
+            throw new RuntimeException("Checkpoint không thuộc về bài học này.");
+        }
+
+        boolean correct = checkpoint.isCorrect(answer);
+        answerRepository.insertIfAbsent(currentUser.getId(), lessonId, checkpointId);
+        answerRepository.updateAnswer(currentUser.getId(), checkpointId, answer, correct, LocalDateTime.now());
+
+        int completed = timeline.countExisting(answerRepository.findAnsweredCheckpointIds(currentUser.getId(), lessonId));
+        progressService.applyCheckpointProgress(currentUser, lessonId, completed, timeline.size());
+
+        return new CheckpointAnswerResponse(checkpointId, correct, checkpoint.correctAnswer(), checkpoint.explanation(),
+                completed, timeline.size());
     }
 
     @Transactional
     public LessonCheckpoint createCheckpoint(Long lessonId, LessonCheckpoint checkpoint) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         if (!"teacher".equalsIgnoreCase(currentUser.getRole()) && !"admin".equalsIgnoreCase(currentUser.getRole())) {
             throw new RuntimeException("Chỉ giáo viên hoặc admin mới có thể tạo checkpoint.");
         }
@@ -57,12 +102,15 @@ public class CheckpointService {
         }
 
         checkpoint.setLesson(lesson);
-        return checkpointRepository.save(checkpoint);
+        LessonCheckpoint saved = checkpointRepository.save(checkpoint);
+        timelineCache.evict(lessonId);
+        contentVersions.bumpLesson(lessonId, false);
+        return saved;
     }
 
     @Transactional
     public LessonCheckpoint updateCheckpoint(Long lessonId, Long checkpointId, LessonCheckpoint checkpointDetails) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         LessonCheckpoint checkpoint = checkpointRepository.findById(checkpointId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy checkpoint để cập nhật"));
 
@@ -81,12 +129,15 @@ public class CheckpointService {
         if (checkpointDetails.getQuestionType() != null) checkpoint.setQuestionType(checkpointDetails.getQuestionType());
         if (checkpointDetails.getTimeInSeconds() != null) checkpoint.setTimeInSeconds(checkpointDetails.getTimeInSeconds());
 
-        return checkpointRepository.save(checkpoint);
+        LessonCheckpoint saved = checkpointRepository.save(checkpoint);
+        timelineCache.evict(lessonId);
+        contentVersions.bumpLesson(lessonId, false);
+        return saved;
     }
 
     @Transactional
     public void deleteCheckpoint(Long lessonId, Long checkpointId) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         LessonCheckpoint checkpoint = checkpointRepository.findById(checkpointId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy checkpoint để xóa"));
 
@@ -99,5 +150,20 @@ public class CheckpointService {
         }
 
         checkpointRepository.delete(checkpoint);
+        answerRepository.deleteByCheckpointId(checkpointId);
+        timelineCache.evict(lessonId);
+        contentVersions.bumpLesson(lessonId, false);
+        // Số checkpoint của mọi học sinh đã học bài này thay đổi: tính lại sau khi xóa đã commit
+        TransactionCallbacks.afterCommit(() -> recomputeLessonProgress(lessonId));
+    }
+
+    private void recomputeLessonProgress(Long lessonId) {
+        timelineCache.evict(lessonId);
+        int totalCheckpoints = timelineCache.get(lessonId).size();
+        Map<Long, Integer> answeredByStudent = new HashMap<>();
+        for (Object[] row : answerRepository.countAnsweredByStudent(lessonId)) {
+            answeredByStudent.put((Long) row[0], ((Number) row[1]).intValue());
+        }
+        progressService.recomputeCheckpointProgress(lessonId, totalCheckpoints, answeredByStudent);
     }
 }
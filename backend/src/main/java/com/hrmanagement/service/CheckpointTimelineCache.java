@@ -0,0 +1,105 @@
+package com.hrmanagement.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.hrmanagement.model.LessonCheckpoint;
+import com.hrmanagement.payload.response.CheckpointResponse;
+import com.hrmanagement.repository.LessonCheckpointRepository;
+import com.hrmanagement.repository.LessonRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.*;
+
+/**
+ * Cache timeline checkpoint theo bài học: danh sách checkpoint đã sắp xếp theo thời gian (bất biến)
+ * + map id -> checkpoint để chấm câu trả lời O(1) mà không truy vấn DB.
+ * CheckpointService xóa entry khi checkpoint được tạo / sửa / xóa.
+ */
+@Component
+public class CheckpointTimelineCache {
+
+    @Autowired
+    private LessonCheckpointRepository checkpointRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    private final Cache<Long, CheckpointTimeline> cache;
+
+    public CheckpointTimelineCache(@Value("${checkpoint.timeline-cache.max-size:1000}") long maxSize,
+                                   @Value("${checkpoint.timeline-cache.ttl-seconds:600}") long ttlSeconds) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(Duration.ofSeconds(ttlSeconds))
+                .build();
+    }
+
+    public CheckpointTimeline get(Long lessonId) {
+        return cache.get(lessonId, id -> CheckpointTimeline.of(
+                checkpointRepository.findByLessonOrderByTimeInSecondsAsc(lessonRepository.getReferenceById(id))));
+    }
+
+    // Xóa ngay và xóa lại sau commit để request đọc song song không giữ lại timeline cũ
+    public void evict(Long lessonId) {
+        cache.invalidate(lessonId);
+        TransactionCallbacks.afterCommit(() -> cache.invalidate(lessonId));
+    }
+
+    public static final class CheckpointTimeline {
+        private final List<Entry> entries;
+        private final Map<Long, Entry> byId;
+
+        private CheckpointTimeline(List<Entry> entries) {
+            this.entries = entries;
+            Map<Long, Entry> index = new HashMap<>();
+            for (Entry entry : entries) {
+                index.put(entry.id(), entry);
+            }
+            this.byId = Map.copyOf(index);
+        }
+
+        static CheckpointTimeline of(List<LessonCheckpoint> checkpoints) {
+            // Cùng thời điểm thì theo id để thứ tự ổn định giữa các lần nạp
+            return new CheckpointTimeline(checkpoints.stream()
+                    .sorted(Comparator.comparing(LessonCheckpoint::getTimeInSeconds, Comparator.nullsLast(Comparator.naturalOrder()))
+                            .thenComparing(LessonCheckpoint::getId))
+                    .map(c -> new Entry(c.getId(), c.getTimeInSeconds(), c.getQuestion(), c.getOptions(),
+                            c.getQuestionType(), c.getCorrectAnswer(), c.getExplanation()))
+                    .toList());
+        }
+
+        public Entry find(Long checkpointId) {
+            return byId.get(checkpointId);
+        }
+
+        public int size() {
+            return entries.size();
+        }
+
+        // Số checkpoint còn tồn tại trong các id đã trả lời (bỏ checkpoint đã bị xóa)
+        public int countExisting(Collection<Long> checkpointIds) {
+            int count = 0;
+            for (Long id : checkpointIds) {
+                if (byId.containsKey(id)) count++;
+            }
+            return count;
+        }
+
+        public List<CheckpointResponse> toResponses(boolean includeAnswers) {
+            return entries.stream().map(e -> new CheckpointResponse(e.id(), e.timeInSeconds(), e.question(), e.options(),
+                    e.questionType(), includeAnswers ? e.correctAnswer() : null, includeAnswers ? e.explanation() : null)).toList();
+        }
+    }
+
+    public record Entry(Long id, Integer timeInSeconds, String question, String options,
+                        String questionType, String correctAnswer, String explanation) {
+
+        // So sánh như player cũ: bỏ khoảng trắng hai đầu, phân biệt hoa thường
+        public boolean isCorrect(String answer) {
+            return answer != null && correctAnswer != null && answer.trim().equals(correctAnswer.trim());
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.hrmanagement.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Phiên bản nội dung theo bài học (bài học + checkpoint + quiz) và của danh sách bài học, dùng làm ETag
+ * cho các GET đọc nhiều: so If-None-Match với phiên bản trong bộ nhớ nên trả 304 không cần truy vấn DB.
+ * LessonService / CheckpointService / QuizService tăng phiên bản sau khi ghi.
+ *
+ * Phiên bản chỉ nằm trong bộ nhớ: tiền tố epoch đổi mỗi lần khởi động để ETag cũ không bao giờ trùng.
+ */
+@Component
+public class ContentVersionRegistry {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong counter = new AtomicLong();
+    private final Map<Long, Long> lessonVersions = new ConcurrentHashMap<>();
+    private volatile long lessonListVersion;
+
+    /**
+     * Tăng phiên bản sau khi transaction hiện tại commit (chạy ngay nếu không có transaction).
+     * ETag được tính trước khi đọc dữ liệu, nên request nào thấy phiên bản mới cũng đọc được dữ liệu đã commit.
+     * Entry của bài học đã xóa vẫn giữ lại để ETag cũ không khớp với phiên bản 0 ban đầu.
+     */
+    public void bumpLesson(Long lessonId, boolean listChanged) {
+        TransactionCallbacks.afterCommit(() -> {
+            lessonVersions.put(lessonId, counter.incrementAndGet());
+            if (listChanged) {
+                lessonListVersion = counter.incrementAndGet();
+            }
+        });
+    }
+
+    // Nhiều bài học bị xóa cùng lúc (vd: xóa giáo viên cascade sang bài học của họ), danh sách chỉ tăng 1 lần
+    public void bumpLessons(Collection<Long> lessonIds) {
+        if (lessonIds.isEmpty()) return;
+        TransactionCallbacks.afterCommit(() -> {
+            for (Long lessonId : lessonIds) {
+                lessonVersions.put(lessonId, counter.incrementAndGet());
+            }
+            lessonListVersion = counter.incrementAndGet();
+        });
+    }
+
+    // resource + variant phân biệt các response khác nhau của cùng phiên bản (vd: có / không có đáp án)
+    public String lessonEtag(Long lessonId, String resource, String variant) {
+        return etag(resource + "-" + lessonId, lessonVersions.getOrDefault(lessonId, 0L), variant);
+    }
+
+    public String lessonListEtag(String variant) {
+        return etag("lessons", lessonListVersion, variant);
+    }
+
+    private String etag(String resource, long version, String variant) {
+        return "\"" + epoch + "-" + resource + "-" + version + "-" + variant + "\"";
+    }
+}
@@ -0,0 +1,269 @@
+package com.hrmanagement.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hrmanagement.security.services.CurrentUserProvider;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.format.DateTimeFormatter;
+import java.util.Locale;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Xuất dữ liệu lớn cho admin (CSV hoặc NDJSON) theo kiểu stream:
+ * đọc bằng JDBC cursor (fetch size) trong transaction chỉ đọc và ghi từng dòng ra response,
+ * bộ nhớ dùng không phụ thuộc kích thước bảng.
+ */
+@Service
+public class ExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExportService.class);
+
+    public static final String FORMAT_CSV = "csv";
+    public static final String FORMAT_NDJSON = "ndjson";
+
+    private static final DateTimeFormatter DATETIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+
+    private static final Map<String, String> DATASETS = Map.of(
+            "study-time",
+            "SELECT s.id, s.student_id, u.email AS student_email, s.date, s.total_seconds, " +
+            "s.created_at, s.updated_at " +
+            "FROM study_time s LEFT JOIN users u ON u.id = s.student_id ORDER BY s.id",
+
+            "lesson-progress",
+            "SELECT p.id, p.student_id, u.email AS student_email, p.lesson_id, l.title AS lesson_title, " +
+            "p.video_progress_seconds, p.checkpoints_completed, p.total_checkpoints, p.quiz_score, p.completed, " +
+            "p.created_at, p.updated_at " +
+            "FROM lesson_progress p LEFT JOIN users u ON u.id = p.student_id " +
+            "LEFT JOIN lessons l ON l.id = p.lesson_id ORDER BY p.id",
+
+            "assignment-submissions",
+            "SELECT s.id, s.assignment_id, a.title AS assignment_title, s.student_id, u.email AS student_email, " +
+            "s.score, s.submitted_at, s.content, s.created_at, s.updated_at " +
+            "FROM assignment_submissions s LEFT JOIN users u ON u.id = s.student_id " +
+            "LEFT JOIN assignments a ON a.id = s.assignment_id ORDER BY s.id"
+    );
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CurrentUserProvider currentUserProvider;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${export.fetch-size:1000}")
+    private int fetchSize;
+
+    private JdbcTemplate cursorTemplate;
+    private TransactionTemplate readOnlyTransaction;
+
+    @PostConstruct
+    void init() {
+        // JdbcTemplate riêng có fetch size: PostgreSQL chỉ đọc theo cursor khi autocommit tắt (trong transaction)
+        cursorTemplate = new JdbcTemplate(dataSource);
+        cursorTemplate.setFetchSize(fetchSize);
+        readOnlyTransaction = new TransactionTemplate(transactionManager);
+        readOnlyTransaction.setReadOnly(true);
+    }
+
+    /**
+     * Kiểm tra quyền + tham số trước khi bắt đầu stream (lỗi còn trả về được dưới dạng JSON bình thường).
+     */
+    public void validate(String dataset, String format) {
+        if (!"admin".equalsIgnoreCase(currentUserProvider.getCurrentRole())) {
+            throw new RuntimeException("Chỉ admin mới có thể xuất dữ liệu.");
+        }
+        if (!DATASETS.containsKey(dataset)) {
+            throw new RuntimeException("Không hỗ trợ xuất dữ liệu: " + dataset + " (" + String.join(", ", DATASETS.keySet()) + ")");
+        }
+        normalizeFormat(format);
+    }
+
+    public static String normalizeFormat(String format) {
+        String normalized = format != null ? format.toLowerCase(Locale.ROOT) : FORMAT_CSV;
+        if (!FORMAT_CSV.equals(normalized) && !FORMAT_NDJSON.equals(normalized)) {
+            throw new RuntimeException("Định dạng không hợp lệ: " + format + " (csv hoặc ndjson)");
+        }
+        return normalized;
+    }
+
+    /**
+     * Ghi toàn bộ dataset ra out. Gọi sau validate(), thường từ StreamingResponseBody.
+     */
+    public void export(String dataset, String format, boolean gzip, OutputStream out) throws IOException {
+        String sql = DATASETS.get(dataset);
+        boolean csv = FORMAT_CSV.equals(normalizeFormat(format));
+        long startedAt = System.currentTimeMillis();
+
+        OutputStream target = gzip ? new GZIPOutputStream(out, 64 * 1024) : out;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(target, StandardCharsets.UTF_8), 64 * 1024);
+        RowWriter rowWriter = csv ? new CsvRowWriter(writer) : new NdjsonRowWriter(objectMapper.getFactory().createGenerator(writer));
+
+        long[] rows = {0};
+        try {
+            readOnlyTransaction.executeWithoutResult(status -> cursorTemplate.query(sql, (ResultSet rs) -> {
+                try {
+                    rowWriter.start(rs.getMetaData());
+                    while (rs.next()) {
+                        rowWriter.write(rs);
+                        rows[0]++;
+                    }
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                return null;
+            }));
+            rowWriter.finish();
+        } catch (UncheckedIOException e) {
+            // Client ngắt kết nối giữa chừng: dừng đọc DB
+            logger.warn("Dừng xuất {} sau {} dòng: {}", dataset, rows[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+        writer.flush();
+        if (target instanceof GZIPOutputStream gzipStream) {
+            gzipStream.finish();
+        }
+        logger.info("Đã xuất {} dòng {} ({}) trong {} ms", rows[0], dataset, format, System.currentTimeMillis() - startedAt);
+    }
+
+    private interface RowWriter {
+        void start(ResultSetMetaData metaData) throws SQLException, IOException;
+        void write(ResultSet rs) throws SQLException, IOException;
+        void finish() throws IOException;
+    }
+
+    private static final class CsvRowWriter implements RowWriter {
+        private final Writer writer;
+        private int columnCount;
+
+        private CsvRowWriter(Writer writer) {
+            this.writer = writer;
+        }
+
+        @Override
+        public void start(ResultSetMetaData metaData) throws SQLException, IOException {
+            columnCount = metaData.getColumnCount();
+            for (int i = 1; i <= columnCount; i++) {
+                if (i > 1) writer.write(',');
+                writeCell(metaData.getColumnLabel(i).toLowerCase(Locale.ROOT));
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            for (int i = 1; i <= columnCount; i++) {
+                if (i > 1) writer.write(',');
+                Object value = rs.getObject(i);
+                if (value != null) {
+                    writeCell(formatValue(value));
+                }
+            }
+            writer.write("\r\n");
+        }
+
+        @Override
+        public void finish() throws IOException {
+            writer.flush();
+        }
+
+        // RFC 4180: bọc trong dấu nháy kép nếu có dấu phẩy, nháy kép hoặc xuống dòng
+        private void writeCell(String value) throws IOException {
+            boolean quote = false;
+            for (int i = 0; i < value.length() && !quote; i++) {
+                char c = value.charAt(i);
+                quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+            }
+            if (!quote) {
+                writer.write(value);
+                return;
+            }
+            writer.write('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') writer.write('"');
+                writer.write(c);
+            }
+            writer.write('"');
+        }
+    }
+
+    private static final class NdjsonRowWriter implements RowWriter {
+        private final JsonGenerator generator;
+        private String[] names;
+
+        private NdjsonRowWriter(JsonGenerator generator) {
+            this.generator = generator;
+            generator.setRootValueSeparator(null);
+        }
+
+        @Override
+        public void start(ResultSetMetaData metaData) throws SQLException {
+            names = new String[metaData.getColumnCount()];
+            for (int i = 0; i < names.length; i++) {
+                names[i] = metaData.getColumnLabel(i + 1).toLowerCase(Locale.ROOT);
+            }
+        }
+
+        @Override
+        public void write(ResultSet rs) throws SQLException, IOException {
+            generator.writeStartObject();
+            for (int i = 0; i < names.length; i++) {
+                Object value = rs.getObject(i + 1);
+                generator.writeFieldName(names[i]);
+                if (value == null) {
+                    generator.writeNull();
+                } else if (value instanceof Boolean b) {
+                    generator.writeBoolean(b);
+                } else if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+                    generator.writeNumber(((Number) value).longValue());
+                } else if (value instanceof Double || value instanceof Float) {
+                    generator.writeNumber(((Number) value).doubleValue());
+                } else if (value instanceof BigDecimal decimal) {
+                    generator.writeNumber(decimal);
+                } else {
+                    generator.writeString(formatValue(value));
+                }
+            }
+            generator.writeEndObject();
+            generator.writeRaw('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            generator.flush();
+        }
+    }
+
+    private static String formatValue(Object value) {
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime().format(DATETIME_FORMAT);
+        }
+        if (value instanceof java.sql.Date date) {
+            return date.toLocalDate().toString();
+        }
+        return value.toString();
+    }
+}
@@ -0,0 +1,55 @@
+package com.hrmanagement.service;
+
+import com.hrmanagement.model.FinalQuiz;
+import com.hrmanagement.model.Lesson;
+import com.hrmanagement.model.LessonProgress;
+import com.hrmanagement.payload.response.CheckpointResponse;
+import com.hrmanagement.payload.response.LessonBundleResponse;
+import com.hrmanagement.repository.FinalQuizRepository;
+import com.hrmanagement.repository.LessonRepository;
+import com.hrmanagement.security.services.CurrentUserProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+/**
+ * Gom dữ liệu trang bài học (thay cho 4 request lesson / checkpoints / quiz / progress).
+ * Id và role lấy từ JWT principal nên không truy vấn bảng users; checkpoint lấy từ CheckpointTimelineCache.
+ */
+@Service
+public class LessonBundleService {
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private FinalQuizRepository quizRepository;
+
+    @Autowired
+    private CheckpointTimelineCache checkpointTimelineCache;
+
+    @Autowired
+    private ProgressService progressService;
+
+    @Autowired
+    private CurrentUserProvider currentUserProvider;
+
+    @Transactional(readOnly = true)
+    public LessonBundleResponse getLessonBundle(Long lessonId) {
+        String role = currentUserProvider.getCurrentRole();
+        Lesson lesson = lessonRepository.findById(lessonId)
+                .orElseThrow(() -> new RuntimeException("Không tìm thấy bài học với ID: " + lessonId));
+
+        boolean includeAnswers = "teacher".equalsIgnoreCase(role) || "admin".equalsIgnoreCase(role);
+        List<CheckpointResponse> checkpoints = checkpointTimelineCache.get(lessonId).toResponses(includeAnswers);
+        List<FinalQuiz> quiz = quizRepository.findByLessonId(lessonId);
+
+        LessonProgress progress = "student".equalsIgnoreCase(role)
+                ? progressService.findLessonProgress(currentUserProvider.getCurrentUserId(), lessonId)
+                : null;
+
+        return new LessonBundleResponse(lesson, checkpoints, quiz, progress);
+    }
+}
@@ -5,10 +5,8 @@ import com.hrmanagement.model.LessonProgress;
 import com.hrmanagement.model.User;
 import com.hrmanagement.repository.LessonProgressRepository;
 import com.hrmanagement.repository.LessonRepository;
-import com.hrmanagement.repository.UserRepository;
+import com.hrmanagement.security.services.CurrentUserProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -24,22 +22,13 @@ public class LessonProgressService {
     private LessonRepository lessonRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private CurrentUserProvider currentUserProvider;
 
-    private User getCurrentUser() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        String username;
-        if (principal instanceof UserDetails) {
-            username = ((UserDetails) principal).getUsername();
-        } else {
-            username = principal.toString();
-        }
-        return userRepository.findByEmail(username)
-                .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng với email: " + username));
-    }
+    @Autowired
+    private RankingService rankingService;
 
     public List<LessonProgress> getAllProgressForStudent() {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         if (!"student".equals(currentUser.getRole())) {
             throw new RuntimeException("Chỉ học sinh mới được xem tiến trình của mình");
         }
@@ -47,7 +36,7 @@ public class LessonProgressService {
     }
 
     public LessonProgress getProgressByLesson(Long lessonId) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         Lesson lesson = lessonRepository.findById(lessonId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy bài học"));
 
@@ -65,11 +54,13 @@ public class LessonProgressService {
         newProgress.setCompleted(false);
         newProgress.setCheckpointsCompleted(0);
         newProgress.setTotalCheckpoints(0);
-        return progressRepository.save(newProgress);
+        LessonProgress saved = progressRepository.save(newProgress);
+        rankingService.recordProgress(saved);
+        return saved;
     }
 
     public LessonProgress updateProgress(Long lessonId, LessonProgress progressDetails) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         if (!"student".equals(currentUser.getRole())) {
             throw new RuntimeException("Chỉ học sinh mới được cập nhật tiến trình");
         }
@@ -105,11 +96,13 @@ public class LessonProgressService {
             progress.setTotalCheckpoints(progressDetails.getTotalCheckpoints());
         }
 
-        return progressRepository.save(progress);
+        LessonProgress saved = progressRepository.save(progress);
+        rankingService.recordProgress(saved);
+        return saved;
     }
 
     public List<LessonProgress> getProgressByLessonForTeacher(Long lessonId) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         Lesson lesson = lessonRepository.findById(lessonId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy bài học"));
 
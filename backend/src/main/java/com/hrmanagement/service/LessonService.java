@@ -2,13 +2,17 @@ package com.hrmanagement.service;
 
 import com.hrmanagement.model.Lesson;
 import com.hrmanagement.model.User;
+import com.hrmanagement.payload.response.LessonCatalogPage;
+import com.hrmanagement.payload.response.LessonSummaryResponse;
 import com.hrmanagement.repository.LessonRepository;
-import com.hrmanagement.repository.UserRepository;
+import com.hrmanagement.security.services.CurrentUserProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
 import java.util.List;
 
 @Service
@@ -18,22 +22,19 @@ public class LessonService {
     private LessonRepository lessonRepository;
 
     @Autowired
-    private UserRepository userRepository;
-
-    private User getCurrentUser() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        String username;
-        if (principal instanceof UserDetails) {
-            username = ((UserDetails) principal).getUsername();
-        } else {
-            username = principal.toString();
-        }
-        return userRepository.findByEmail(username)
-                .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng với email: " + username));
-    }
+    private CurrentUserProvider currentUserProvider;
+
+    @Autowired
+    private RankingService rankingService;
+
+    @Autowired
+    private CheckpointTimelineCache checkpointTimelineCache;
+
+    @Autowired
+    private ContentVersionRegistry contentVersions;
 
     public List<Lesson> getAllLessons() {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         // Teacher chỉ thấy bài học của mình, Student thấy tất cả
         if ("teacher".equals(currentUser.getRole())) {
             return lessonRepository.findByTeacher(currentUser);
@@ -41,22 +42,63 @@ public class LessonService {
         return lessonRepository.findAllByOrderByCreatedAtDesc();
     }
 
+    // ETag của danh sách bài học: teacher nhận danh sách riêng nên ETag theo từng teacher
+    public String getLessonsEtag() {
+        return contentVersions.lessonListEtag(getListVariant());
+    }
+
+    private String getListVariant() {
+        return "teacher".equals(currentUserProvider.getCurrentRole()) ? "t" + currentUserProvider.getCurrentUserId() : "all";
+    }
+
+    public String getLessonEtag(Long id) {
+        return contentVersions.lessonEtag(id, "lesson", "all");
+    }
+
+    /**
+     * Danh mục bài học phân trang theo keyset: cursor là (createdAt, id) của bài cuối trang trước (mã hóa base64url),
+     * mỗi trang chỉ đọc limit + 1 dòng từ index, không OFFSET / COUNT. Teacher chỉ thấy bài học của mình như getAllLessons.
+     */
+    public LessonCatalogPage getCatalog(int limit, String cursor) {
+        Long teacherId = "teacher".equals(currentUserProvider.getCurrentRole()) ? currentUserProvider.getCurrentUserId() : null;
+        CatalogCursor after = decodeCursor(cursor);
+        PageRequest window = PageRequest.of(0, limit + 1);
+
+        List<LessonSummaryResponse> rows = after == null
+                ? lessonRepository.findCatalogFirstPage(teacherId, window)
+                : lessonRepository.findCatalogPageAfter(teacherId, after.createdAt(), after.id(), window);
+        if (rows.size() <= limit) {
+            return new LessonCatalogPage(rows, null);
+        }
+        List<LessonSummaryResponse> items = rows.subList(0, limit);
+        LessonSummaryResponse last = items.get(limit - 1);
+        return new LessonCatalogPage(items, encodeCursor(last.createdAt(), last.id()));
+    }
+
+    // Cùng phiên bản với danh sách bài học, khác theo trang (cursor đã được kiểm tra nên chỉ gồm ký tự base64url)
+    public String getCatalogEtag(int limit, String cursor) {
+        decodeCursor(cursor);
+        return contentVersions.lessonListEtag(getListVariant() + "-catalog-" + limit + "-" + (cursor != null ? cursor : ""));
+    }
+
     public Lesson getLessonById(Long id) {
         return lessonRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy bài học với ID: " + id));
     }
 
     public Lesson createLesson(Lesson lesson) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         if (!"teacher".equals(currentUser.getRole()) && !"admin".equals(currentUser.getRole())) {
             throw new RuntimeException("Chỉ giáo viên mới được tạo bài học");
         }
         lesson.setTeacher(currentUser);
-        return lessonRepository.save(lesson);
+        Lesson savedLesson = lessonRepository.save(lesson);
+        contentVersions.bumpLesson(savedLesson.getId(), true);
+        return savedLesson;
     }
 
     public Lesson updateLesson(Long id, Lesson lessonDetails) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         Lesson existingLesson = lessonRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy bài học"));
 
@@ -69,13 +111,19 @@ public class LessonService {
         if (lessonDetails.getTitle() != null) existingLesson.setTitle(lessonDetails.getTitle());
         if (lessonDetails.getDescription() != null) existingLesson.setDescription(lessonDetails.getDescription());
         if (lessonDetails.getYoutubeUrl() != null) existingLesson.setYoutubeUrl(lessonDetails.getYoutubeUrl());
-        if (lessonDetails.getTotalDuration() != null) existingLesson.setTotalDuration(lessonDetails.getTotalDuration());
+        // Đổi thời lượng làm thay đổi % video của mọi học sinh đã học bài này
+        if (lessonDetails.getTotalDuration() != null && !lessonDetails.getTotalDuration().equals(existingLesson.getTotalDuration())) {
+            existingLesson.setTotalDuration(lessonDetails.getTotalDuration());
+            rankingService.invalidate();
+        }
 
-        return lessonRepository.save(existingLesson);
+        Lesson savedLesson = lessonRepository.save(existingLesson);
+        contentVersions.bumpLesson(id, true);
+        return savedLesson;
     }
 
     public void deleteLesson(Long id) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         Lesson lesson = lessonRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy bài học"));
 
@@ -84,6 +132,26 @@ public class LessonService {
         }
 
         lessonRepository.delete(lesson);
+        rankingService.invalidate();
+        checkpointTimelineCache.evict(id);
+        contentVersions.bumpLesson(id, true);
     }
-}
 
+    private static String encodeCursor(LocalDateTime createdAt, Long id) {
+        String raw = createdAt + "_" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static CatalogCursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = raw.lastIndexOf('_');
+            return new CatalogCursor(LocalDateTime.parse(raw.substring(0, separator)), Long.parseLong(raw.substring(separator + 1)));
+        } catch (RuntimeException e) {
+            throw new RuntimeException("Cursor không hợp lệ: " + cursor);
+        }
+    }
+
+    private record CatalogCursor(LocalDateTime createdAt, Long id) {}
+}
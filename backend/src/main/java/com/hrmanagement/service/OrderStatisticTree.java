@@ -0,0 +1,157 @@
+package com.hrmanagement.service;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Cây treap có lưu kích thước cây con, cho phép:
+ * thêm/xóa, tìm thứ hạng (index) của một phần tử và lấy một đoạn [offset, offset + limit)
+ * đều trong O(log n) (+ k phần tử trả về).
+ * Không thread-safe: người dùng tự đồng bộ (RankingService giữ lock riêng).
+ */
+final class OrderStatisticTree<E> {
+
+    private final Comparator<? super E> comparator;
+    private Node<E> root;
+
+    OrderStatisticTree(Comparator<? super E> comparator) {
+        this.comparator = comparator;
+    }
+
+    int size() {
+        return size(root);
+    }
+
+    void clear() {
+        root = null;
+    }
+
+    boolean add(E value) {
+        if (indexOf(value) >= 0) return false;
+        root = insert(root, value);
+        return true;
+    }
+
+    boolean remove(E value) {
+        if (indexOf(value) < 0) return false;
+        root = delete(root, value);
+        return true;
+    }
+
+    /**
+     * Vị trí (bắt đầu từ 0) của phần tử theo thứ tự của comparator, -1 nếu không có
+     */
+    int indexOf(E value) {
+        int index = 0;
+        Node<E> node = root;
+        while (node != null) {
+            int cmp = comparator.compare(value, node.value);
+            if (cmp < 0) {
+                node = node.left;
+            } else if (cmp > 0) {
+                index += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return index + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Lấy tối đa limit phần tử bắt đầu từ vị trí offset, bỏ qua nguyên cây con nằm trước offset
+     */
+    List<E> range(int offset, int limit) {
+        List<E> result = new ArrayList<>(Math.max(0, Math.min(limit, size() - offset)));
+        collect(root, offset, limit, result);
+        return result;
+    }
+
+    private void collect(Node<E> node, int offset, int limit, List<E> out) {
+        if (node == null || out.size() >= limit) return;
+        int leftSize = size(node.left);
+        if (offset < leftSize) {
+            collect(node.left, offset, limit, out);
+        }
+        if (out.size() >= limit) return;
+        if (offset <= leftSize) {
+            out.add(node.value);
+        }
+        collect(node.right, Math.max(0, offset - leftSize - 1), limit, out);
+    }
+
+    private Node<E> insert(Node<E> node, E value) {
+        if (node == null) return new Node<>(value);
+        if (comparator.compare(value, node.value) < 0) {
+            node.left = insert(node.left, value);
+            if (node.left.priority > node.priority) node = rotateRight(node);
+        } else {
+            node.right = insert(node.right, value);
+            if (node.right.priority > node.priority) node = rotateLeft(node);
+        }
+        node.update();
+        return node;
+    }
+
+    private Node<E> delete(Node<E> node, E value) {
+        if (node == null) return null;
+        int cmp = comparator.compare(value, node.value);
+        if (cmp < 0) {
+            node.left = delete(node.left, value);
+        } else if (cmp > 0) {
+            node.right = delete(node.right, value);
+        } else {
+            if (node.left == null) return node.right;
+            if (node.right == null) return node.left;
+            if (node.left.priority > node.right.priority) {
+                node = rotateRight(node);
+                node.right = delete(node.right, value);
+            } else {
+                node = rotateLeft(node);
+                node.left = delete(node.left, value);
+            }
+        }
+        node.update();
+        return node;
+    }
+
+    private Node<E> rotateRight(Node<E> node) {
+        Node<E> left = node.left;
+        node.left = left.right;
+        left.right = node;
+        node.update();
+        left.update();
+        return left;
+    }
+
+    private Node<E> rotateLeft(Node<E> node) {
+        Node<E> right = node.right;
+        node.right = right.left;
+        right.left = node;
+        node.update();
+        right.update();
+        return right;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    private static final class Node<E> {
+        private final E value;
+        private final int priority = ThreadLocalRandom.current().nextInt();
+        private int size = 1;
+        private Node<E> left;
+        private Node<E> right;
+
+        private Node(E value) {
+            this.value = value;
+        }
+
+        private void update() {
+            size = 1 + OrderStatisticTree.size(left) + OrderStatisticTree.size(right);
+        }
+    }
+}
@@ -3,21 +3,48 @@ package com.hrmanagement.service;
 import com.hrmanagement.model.Lesson;
 import com.hrmanagement.model.LessonProgress;
 import com.hrmanagement.model.User;
+import com.hrmanagement.payload.request.ProgressBatchRequest;
 import com.hrmanagement.repository.LessonProgressRepository;
 import com.hrmanagement.repository.LessonRepository;
-import com.hrmanagement.repository.UserRepository;
+import com.hrmanagement.security.services.CurrentUserProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ProgressService {
 
+    private static final int MAX_BATCH_SIZE = 500;
+
+    // ON CONFLICT không ghi cột đích vì H2 (chế độ PostgreSQL, dùng khi chạy local) chỉ nhận dạng này
+    private static final String INSERT_IF_ABSENT_SQL = "INSERT INTO lesson_progress " +
+            "(student_id, lesson_id, video_progress_seconds, completed, checkpoints_completed, total_checkpoints, " +
+            "created_at, updated_at) VALUES (?, ?, 0, FALSE, 0, 0, ?, ?) ON CONFLICT DO NOTHING";
+
+    // Cùng quy tắc với isLessonCompleted, tính trong câu lệnh để không phải đọc dòng trước khi ghi
+    private static final String APPLY_HEARTBEAT_SQL = "UPDATE lesson_progress SET " +
+            "video_progress_seconds = GREATEST(COALESCE(video_progress_seconds, 0), ?), " +
+            "quiz_score = COALESCE(?, quiz_score), " +
+            "completed = (COALESCE(checkpoints_completed, 0) >= COALESCE(total_checkpoints, 0) " +
+            "AND COALESCE(?, quiz_score) IS NOT NULL), " +
+            "updated_at = ? " +
+            "WHERE student_id = ? AND lesson_id = ?";
+
     @Autowired
     private LessonProgressRepository progressRepository;
 
@@ -25,44 +52,52 @@ public class ProgressService {
     private LessonRepository lessonRepository;
 
     @Autowired
-    private UserRepository userRepository;
+    private CurrentUserProvider currentUserProvider;
 
-    private User getCurrentUser() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        String username;
-        if (principal instanceof UserDetails) {
-            username = ((UserDetails) principal).getUsername();
-        } else {
-            username = principal.toString();
-        }
-        return userRepository.findByEmail(username)
-                .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng với email: " + username));
-    }
+    @Autowired
+    private RankingService rankingService;
+
+    @Autowired
+    private ProgressWriteBehindBuffer writeBehindBuffer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
 
     public List<LessonProgress> getStudentProgress() {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         if (!"student".equalsIgnoreCase(currentUser.getRole())) {
             throw new RuntimeException("Chỉ học sinh mới có thể xem tiến trình của mình.");
         }
-        return progressRepository.findByStudentId(currentUser.getId());
+        List<LessonProgress> progress = progressRepository.findByStudentId(currentUser.getId());
+        return writeBehindBuffer.isEnabled() ? writeBehindBuffer.overlayAll(currentUser.getId(), progress) : progress;
     }
 
     public LessonProgress getLessonProgress(Long lessonId) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         if (!"student".equalsIgnoreCase(currentUser.getRole())) {
             throw new RuntimeException("Chỉ học sinh mới có thể xem tiến trình bài học.");
         }
-        return progressRepository.findByLessonIdAndStudentId(lessonId, currentUser.getId())
+        return findLessonProgress(currentUser.getId(), lessonId);
+    }
+
+    // Tiến trình của một học sinh trong bài học (đã cộng phần đang chờ ghi nếu bật write-behind), null nếu chưa có
+    public LessonProgress findLessonProgress(Long studentId, Long lessonId) {
+        LessonProgress progress = progressRepository.findByLessonIdAndStudentId(lessonId, studentId)
                 .orElse(null);
+        return writeBehindBuffer.isEnabled() ? writeBehindBuffer.overlay(studentId, lessonId, progress) : progress;
     }
 
     @Transactional
     public LessonProgress updateProgress(Long lessonId, LessonProgress progressData) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         if (!"student".equalsIgnoreCase(currentUser.getRole())) {
             throw new RuntimeException("Chỉ học sinh mới có thể cập nhật tiến trình.");
         }
 
+        if (writeBehindBuffer.isEnabled()) {
+            return bufferProgress(lessonId, currentUser.getId(), progressData);
+        }
+
         Lesson lesson = lessonRepository.findById(lessonId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy bài học với ID: " + lessonId));
 
@@ -77,31 +112,192 @@ public class ProgressService {
             if (progressData.getQuizScore() != null) {
                 progress.setQuizScore(progressData.getQuizScore());
             }
-            if (progressData.getCompleted() != null) {
-                progress.setCompleted(progressData.getCompleted());
-            }
-            if (progressData.getCheckpointsCompleted() != null) {
-                progress.setCheckpointsCompleted(progressData.getCheckpointsCompleted());
-            }
-            if (progressData.getTotalCheckpoints() != null) {
-                progress.setTotalCheckpoints(progressData.getTotalCheckpoints());
-            }
         } else {
             progress = new LessonProgress();
             progress.setLesson(lesson);
             progress.setStudent(currentUser);
             progress.setVideoProgressSeconds(progressData.getVideoProgressSeconds() != null ? progressData.getVideoProgressSeconds() : 0);
             progress.setQuizScore(progressData.getQuizScore());
-            progress.setCompleted(progressData.getCompleted() != null ? progressData.getCompleted() : false);
-            progress.setCheckpointsCompleted(progressData.getCheckpointsCompleted() != null ? progressData.getCheckpointsCompleted() : 0);
-            progress.setTotalCheckpoints(progressData.getTotalCheckpoints() != null ? progressData.getTotalCheckpoints() : 0);
+            progress.setCheckpointsCompleted(0);
+            progress.setTotalCheckpoints(0);
         }
+        progress.setCompleted(isLessonCompleted(progress));
+
+        LessonProgress saved = progressRepository.save(progress);
+        rankingService.recordProgress(saved);
+        return saved;
+    }
+
+    /**
+     * Ghi nhiều cập nhật tiến trình (heartbeat của trình phát video) trong 1 transaction:
+     * gộp các cập nhật cùng bài học (lấy giá trị lớn nhất), tạo dòng còn thiếu bằng INSERT ... ON CONFLICT DO NOTHING
+     * (ràng buộc unique student_id + lesson_id) rồi cộng vào bằng 1 JDBC batch UPDATE, không đọc trước.
+     * Tiến trình chỉ tăng, không bị ghi đè bởi heartbeat cũ đến muộn.
+     * Trạng thái completed do server tính (xem isLessonCompleted), cờ completed client gửi lên bị bỏ qua.
+     */
+    @Transactional
+    public List<LessonProgress> updateProgressBatch(ProgressBatchRequest request) {
+        User currentUser = currentUserProvider.getCurrentUser();
+        if (!"student".equalsIgnoreCase(currentUser.getRole())) {
+            throw new RuntimeException("Chỉ học sinh mới có thể cập nhật tiến trình.");
+        }
+        if (request == null || request.getUpdates() == null || request.getUpdates().isEmpty()) {
+            return List.of();
+        }
+        if (request.getUpdates().size() > MAX_BATCH_SIZE) {
+            throw new RuntimeException("Tối đa " + MAX_BATCH_SIZE + " cập nhật tiến trình trong một lần gửi.");
+        }
+
+        // 1. Gộp các cập nhật theo bài học
+        Map<Long, ProgressBatchRequest.Item> merged = new LinkedHashMap<>();
+        for (ProgressBatchRequest.Item item : request.getUpdates()) {
+            if (item == null || item.getLessonId() == null) {
+                throw new RuntimeException("Thiếu lessonId trong cập nhật tiến trình.");
+            }
+            merged.merge(item.getLessonId(), item, ProgressService::mergeItems);
+        }
+
+        // 2. Kiểm tra bài học (Lesson nằm trong second-level cache)
+        Set<Long> lessonIds = lessonRepository.findAllById(merged.keySet()).stream()
+                .map(Lesson::getId)
+                .collect(Collectors.toSet());
+        for (Long lessonId : merged.keySet()) {
+            if (!lessonIds.contains(lessonId)) {
+                throw new RuntimeException("Không tìm thấy bài học với ID: " + lessonId);
+            }
+        }
+
+        if (writeBehindBuffer.isEnabled()) {
+            Map<Long, LessonProgress> existing = progressRepository
+                    .findByStudentIdAndLessonIdIn(currentUser.getId(), merged.keySet()).stream()
+                    .collect(Collectors.toMap(p -> p.getLesson().getId(), Function.identity()));
+            List<LessonProgress> result = new ArrayList<>(merged.size());
+            for (ProgressBatchRequest.Item item : merged.values()) {
+                writeBehindBuffer.enqueue(currentUser.getId(), item.getLessonId(), item.getVideoProgressSeconds(),
+                        null, null, item.getQuizScore());
+                result.add(writeBehindBuffer.overlay(currentUser.getId(), item.getLessonId(), existing.get(item.getLessonId())));
+            }
+            return result;
+        }
+
+        // 3. Upsert (chỉ tăng) rồi đọc lại các dòng vừa ghi
+        List<ProgressBatchRequest.Item> items = new ArrayList<>(merged.values());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        Long studentId = currentUser.getId();
+        jdbcTemplate.batchUpdate(INSERT_IF_ABSENT_SQL, items, items.size(), (ps, item) -> {
+            ps.setLong(1, studentId);
+            ps.setLong(2, item.getLessonId());
+            ps.setTimestamp(3, now);
+            ps.setTimestamp(4, now);
+        });
+        jdbcTemplate.batchUpdate(APPLY_HEARTBEAT_SQL, items, items.size(), (ps, item) -> {
+            ps.setInt(1, item.getVideoProgressSeconds() != null ? item.getVideoProgressSeconds() : 0);
+            ps.setObject(2, item.getQuizScore(), Types.DOUBLE);
+            ps.setObject(3, item.getQuizScore(), Types.DOUBLE);
+            ps.setTimestamp(4, now);
+            ps.setLong(5, studentId);
+            ps.setLong(6, item.getLessonId());
+        });
+
+        List<LessonProgress> saved = progressRepository.findByStudentIdAndLessonIdIn(studentId, merged.keySet());
+        for (LessonProgress progress : saved) {
+            rankingService.recordProgress(progress);
+        }
+        return saved;
+    }
+
+    /**
+     * Ghi số checkpoint đã hoàn thành do server tính từ các câu trả lời đã chấm (CheckpointService).
+     * Client không còn tự gửi checkpointsCompleted / totalCheckpoints; completed được tính lại theo số mới.
+     */
+    @Transactional
+    public void applyCheckpointProgress(User student, Long lessonId, int checkpointsCompleted, int totalCheckpoints) {
+        if (writeBehindBuffer.isEnabled()) {
+            writeBehindBuffer.enqueue(student.getId(), lessonId, null, checkpointsCompleted, totalCheckpoints, null);
+            return;
+        }
+
+        LessonProgress progress = progressRepository.findByLessonIdAndStudentId(lessonId, student.getId()).orElse(null);
+        if (progress == null) {
+            progress = new LessonProgress();
+            progress.setLesson(lessonRepository.getReferenceById(lessonId));
+            progress.setStudent(student);
+            progress.setVideoProgressSeconds(0);
+            progress.setCompleted(false);
+        }
+        progress.setCheckpointsCompleted(checkpointsCompleted);
+        progress.setTotalCheckpoints(totalCheckpoints);
+        progress.setCompleted(isLessonCompleted(progress));
+
+        LessonProgress saved = progressRepository.save(progress);
+        rankingService.recordProgress(saved);
+    }
+
+    /**
+     * Tính lại số checkpoint của mọi học sinh có tiến trình trong bài học (sau khi giáo viên xóa checkpoint).
+     * answeredByStudent: studentId -> số checkpoint còn tồn tại mà học sinh đã trả lời.
+     * Được gọi sau commit nên cần transaction mới (transaction cũ không còn commit được nữa).
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void recomputeCheckpointProgress(Long lessonId, int totalCheckpoints, Map<Long, Integer> answeredByStudent) {
+        List<LessonProgress> rows = progressRepository.findByLessonId(lessonId);
+        if (writeBehindBuffer.isEnabled()) {
+            // Cả học sinh chỉ mới có tiến trình trong buffer (chưa flush) cũng cần số mới
+            Set<Long> studentIds = new HashSet<>(answeredByStudent.keySet());
+            rows.forEach(p -> studentIds.add(p.getStudent().getId()));
+            for (Long studentId : studentIds) {
+                writeBehindBuffer.enqueue(studentId, lessonId, null,
+                        answeredByStudent.getOrDefault(studentId, 0), totalCheckpoints, null);
+            }
+        } else {
+            for (LessonProgress progress : rows) {
+                progress.setCheckpointsCompleted(answeredByStudent.getOrDefault(progress.getStudent().getId(), 0));
+                progress.setTotalCheckpoints(totalCheckpoints);
+                progress.setCompleted(isLessonCompleted(progress));
+            }
+            progressRepository.saveAll(rows);
+        }
+        rankingService.invalidate();
+    }
+
+    /**
+     * Chế độ ghi trễ: chỉ đưa cập nhật vào buffer (ghi DB ở lần flush sau),
+     * trả về tiến trình hiện tại đã cộng thêm phần đang chờ ghi.
+     */
+    private LessonProgress bufferProgress(Long lessonId, Long studentId, LessonProgress progressData) {
+        Optional<LessonProgress> existing = progressRepository.findByLessonIdAndStudentId(lessonId, studentId);
+        if (existing.isEmpty() && !lessonRepository.existsById(lessonId)) {
+            throw new RuntimeException("Không tìm thấy bài học với ID: " + lessonId);
+        }
+        writeBehindBuffer.enqueue(studentId, lessonId, progressData.getVideoProgressSeconds(),
+                null, null, progressData.getQuizScore());
+        return writeBehindBuffer.overlay(studentId, lessonId, existing.orElse(null));
+    }
+
+    // Bài học hoàn thành khi đã trả lời hết checkpoint và đã có điểm quiz (trước đây client tự tính)
+    static boolean isLessonCompleted(LessonProgress progress) {
+        int checkpointsCompleted = progress.getCheckpointsCompleted() != null ? progress.getCheckpointsCompleted() : 0;
+        int totalCheckpoints = progress.getTotalCheckpoints() != null ? progress.getTotalCheckpoints() : 0;
+        return checkpointsCompleted >= totalCheckpoints && progress.getQuizScore() != null;
+    }
+
+    // Gộp 2 cập nhật cùng bài học: số giây lấy lớn nhất, quiz lấy giá trị sau
+    private static ProgressBatchRequest.Item mergeItems(ProgressBatchRequest.Item a, ProgressBatchRequest.Item b) {
+        ProgressBatchRequest.Item merged = new ProgressBatchRequest.Item();
+        merged.setLessonId(a.getLessonId());
+        merged.setVideoProgressSeconds(max(a.getVideoProgressSeconds(), b.getVideoProgressSeconds()));
+        merged.setQuizScore(b.getQuizScore() != null ? b.getQuizScore() : a.getQuizScore());
+        return merged;
+    }
 
-        return progressRepository.save(progress);
+    private static Integer max(Integer current, Integer incoming) {
+        if (incoming == null) return current;
+        if (current == null) return incoming;
+        return Math.max(current, incoming);
     }
 
     public List<LessonProgress> getLessonProgressForTeacher(Long lessonId) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         if (!"teacher".equalsIgnoreCase(currentUser.getRole()) && !"admin".equalsIgnoreCase(currentUser.getRole())) {
             throw new RuntimeException("Chỉ giáo viên hoặc admin mới có thể xem tiến trình học sinh.");
         }
@@ -0,0 +1,371 @@
+package com.hrmanagement.service;
+
+import com.hrmanagement.model.Lesson;
+import com.hrmanagement.model.LessonProgress;
+import com.hrmanagement.model.User;
+import com.hrmanagement.repository.LessonProgressRepository;
+import com.hrmanagement.repository.LessonRepository;
+import com.hrmanagement.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Chế độ ghi trễ (write-behind) cho tiến trình bài học, bật bằng progress.write-behind.enabled.
+ * Cập nhật được gộp trong bộ nhớ theo (studentId, lessonId): số giây video lấy lớn nhất,
+ * quiz / số checkpoint lấy giá trị mới nhất (số checkpoint do server tính lại nên có thể giảm);
+ * completed được tính lại từ các giá trị sau khi gộp giống ProgressService.isLessonCompleted.
+ * Định kỳ (hoặc khi buffer đầy) ghi xuống DB bằng 1 JDBC batch UPDATE, dòng chưa có thì INSERT.
+ * Trong lúc flush, các cập nhật đã lấy khỏi buffer nằm ở inFlight cho tới khi transaction commit
+ * để lượt đọc không thấy tiến trình bị lùi lại.
+ * Khi tắt ứng dụng buffer được flush trước khi đóng DataSource.
+ */
+@Component
+public class ProgressWriteBehindBuffer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProgressWriteBehindBuffer.class);
+
+    // GREATEST để heartbeat video không ghi lùi; số checkpoint là giá trị server vừa tính lại nên gán thẳng
+    private static final String UPDATE_SQL = "UPDATE lesson_progress SET " +
+            "video_progress_seconds = GREATEST(COALESCE(video_progress_seconds, 0), ?), " +
+            "checkpoints_completed = COALESCE(?, checkpoints_completed), " +
+            "total_checkpoints = COALESCE(?, total_checkpoints), " +
+            "quiz_score = COALESCE(?, quiz_score), " +
+            "completed = (COALESCE(?, checkpoints_completed, 0) >= COALESCE(?, total_checkpoints, 0) " +
+            "AND COALESCE(?, quiz_score) IS NOT NULL), " +
+            "updated_at = ? " +
+            "WHERE student_id = ? AND lesson_id = ?";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private LessonProgressRepository progressRepository;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RankingService rankingService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${progress.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${progress.write-behind.max-pending:5000}")
+    private int maxPending;
+
+    // ConcurrentHashMap tự chia khóa theo bucket nên các học sinh khác nhau không tranh chấp nhau
+    private final ConcurrentHashMap<ProgressKey, PendingProgress> pending = new ConcurrentHashMap<>();
+    // Đã lấy khỏi pending nhưng transaction ghi chưa commit; chỉ luồng đang giữ flushLock ghi vào đây
+    private final ConcurrentHashMap<ProgressKey, PendingProgress> inFlight = new ConcurrentHashMap<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean(false);
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "progress-write-behind");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private TransactionTemplate transactionTemplate;
+    private Timer flushTimer;
+    private Counter flushedRows;
+    private Counter failedFlushes;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        Gauge.builder("progress.write_behind.pending", pending, Map::size)
+                .description("Số cập nhật tiến trình đang chờ ghi xuống DB")
+                .register(meterRegistry);
+        flushTimer = Timer.builder("progress.write_behind.flush")
+                .description("Thời gian ghi một lần flush")
+                .register(meterRegistry);
+        flushedRows = Counter.builder("progress.write_behind.flushed_rows").register(meterRegistry);
+        failedFlushes = Counter.builder("progress.write_behind.failed_flushes").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void enqueue(Long studentId, Long lessonId, Integer videoProgressSeconds, Integer checkpointsCompleted,
+                        Integer totalCheckpoints, Double quizScore) {
+        PendingProgress update = new PendingProgress(videoProgressSeconds, checkpointsCompleted, totalCheckpoints,
+                quizScore);
+        pending.merge(new ProgressKey(studentId, lessonId), update, PendingProgress::merge);
+
+        if (pending.size() >= maxPending && flushRequested.compareAndSet(false, true)) {
+            flushExecutor.execute(() -> {
+                flushRequested.set(false);
+                flush();
+            });
+        }
+    }
+
+    /**
+     * Trả về tiến trình đã cộng thêm các cập nhật đang chờ ghi.
+     * Không sửa entity đang được quản lý (trả bản sao); row null nghĩa là chưa có dòng trong DB.
+     */
+    public LessonProgress overlay(Long studentId, Long lessonId, LessonProgress row) {
+        ProgressKey key = new ProgressKey(studentId, lessonId);
+        PendingProgress flushing = inFlight.get(key);
+        PendingProgress queued = pending.get(key);
+        PendingProgress update = flushing == null ? queued : queued == null ? flushing : flushing.merge(queued);
+        if (update == null) {
+            return row;
+        }
+        LessonProgress copy = new LessonProgress();
+        if (row != null) {
+            copy.setId(row.getId());
+            copy.setLesson(row.getLesson());
+            copy.setStudent(row.getStudent());
+            copy.setVideoProgressSeconds(row.getVideoProgressSeconds());
+            copy.setQuizScore(row.getQuizScore());
+            copy.setCompleted(row.getCompleted());
+            copy.setCheckpointsCompleted(row.getCheckpointsCompleted());
+            copy.setTotalCheckpoints(row.getTotalCheckpoints());
+            copy.setCreatedAt(row.getCreatedAt());
+            copy.setUpdatedAt(row.getUpdatedAt());
+        } else {
+            copy.setVideoProgressSeconds(0);
+            copy.setCompleted(false);
+            copy.setCheckpointsCompleted(0);
+            copy.setTotalCheckpoints(0);
+        }
+        update.applyTo(copy);
+        return copy;
+    }
+
+    // Danh sách tiến trình của học sinh kèm cả các bài học chỉ mới có trong buffer
+    public List<LessonProgress> overlayAll(Long studentId, List<LessonProgress> rows) {
+        if (pending.isEmpty() && inFlight.isEmpty()) {
+            return rows;
+        }
+        List<LessonProgress> result = new ArrayList<>(rows.size());
+        Set<Long> seenLessons = new HashSet<>();
+        for (LessonProgress row : rows) {
+            Long lessonId = row.getLesson().getId();
+            seenLessons.add(lessonId);
+            result.add(overlay(studentId, lessonId, row));
+        }
+        Set<ProgressKey> keys = new HashSet<>(inFlight.keySet());
+        keys.addAll(pending.keySet());
+        for (ProgressKey key : keys) {
+            if (key.studentId().equals(studentId) && seenLessons.add(key.lessonId())) {
+                LessonProgress progress = overlay(studentId, key.lessonId(), null);
+                if (progress != null) {
+                    result.add(progress);
+                }
+            }
+        }
+        return result;
+    }
+
+    @Scheduled(fixedDelayString = "${progress.write-behind.flush-interval-ms:2000}")
+    public void scheduledFlush() {
+        if (enabled) {
+            flush();
+        }
+    }
+
+    public void flush() {
+        if (pending.isEmpty()) return;
+        flushLock.lock();
+        try {
+            Map<ProgressKey, PendingProgress> drained = drain();
+            if (drained.isEmpty()) return;
+
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                transactionTemplate.executeWithoutResult(status -> write(drained));
+                flushedRows.increment(drained.size());
+            } catch (RuntimeException ex) {
+                // Ghi lỗi: trả lại buffer để lần flush sau thử lại (cập nhật mới hơn vẫn được ưu tiên)
+                drained.forEach((key, older) -> pending.merge(key, older, (newer, old) -> old.merge(newer)));
+                failedFlushes.increment();
+                logger.error("Không thể ghi {} cập nhật tiến trình, sẽ thử lại: {}", drained.size(), ex.getMessage());
+            } finally {
+                // Sau commit DB đã có dữ liệu, còn khi lỗi thì đã trả lại pending
+                inFlight.clear();
+                sample.stop(flushTimer);
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        flushExecutor.shutdown();
+        try {
+            flushExecutor.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private Map<ProgressKey, PendingProgress> drain() {
+        Map<ProgressKey, PendingProgress> drained = new HashMap<>();
+        for (ProgressKey key : pending.keySet()) {
+            PendingProgress update = pending.get(key);
+            if (update == null) {
+                continue;
+            }
+            // Đưa vào inFlight trước khi xóa khỏi pending để lượt đọc song song luôn thấy cập nhật
+            inFlight.put(key, update);
+            if (pending.remove(key, update)) {
+                drained.put(key, update);
+            } else {
+                inFlight.remove(key);
+            }
+        }
+        return drained;
+    }
+
+    private void write(Map<ProgressKey, PendingProgress> drained) {
+        List<Map.Entry<ProgressKey, PendingProgress>> entries = new ArrayList<>(drained.entrySet());
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+
+        int[] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ProgressKey key = entries.get(i).getKey();
+                PendingProgress update = entries.get(i).getValue();
+                ps.setInt(1, update.videoProgressSeconds() != null ? update.videoProgressSeconds() : 0);
+                ps.setObject(2, update.checkpointsCompleted(), Types.INTEGER);
+                ps.setObject(3, update.totalCheckpoints(), Types.INTEGER);
+                ps.setObject(4, update.quizScore(), Types.DOUBLE);
+                ps.setObject(5, update.checkpointsCompleted(), Types.INTEGER);
+                ps.setObject(6, update.totalCheckpoints(), Types.INTEGER);
+                ps.setObject(7, update.quizScore(), Types.DOUBLE);
+                ps.setTimestamp(8, now);
+                ps.setLong(9, key.studentId());
+                ps.setLong(10, key.lessonId());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return entries.size();
+            }
+        });
+
+        // Dòng chưa tồn tại (update 0 dòng): tạo mới qua JPA, bỏ qua nếu bài học / học sinh đã bị xóa
+        List<Map.Entry<ProgressKey, PendingProgress>> missing = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                missing.add(entries.get(i));
+            } else if (counts[i] == Statement.SUCCESS_NO_INFO) {
+                logger.debug("Driver không trả số dòng cập nhật, coi như đã có tiến trình cho {}", entries.get(i).getKey());
+            }
+        }
+        if (!missing.isEmpty()) {
+            insertMissing(missing);
+        }
+
+        Set<Long> studentIds = drained.keySet().stream().map(ProgressKey::studentId).collect(Collectors.toSet());
+        rankingService.refreshStudents(studentIds);
+    }
+
+    private void insertMissing(List<Map.Entry<ProgressKey, PendingProgress>> missing) {
+        Set<Long> lessonIds = missing.stream().map(e -> e.getKey().lessonId()).collect(Collectors.toSet());
+        Set<Long> studentIds = missing.stream().map(e -> e.getKey().studentId()).collect(Collectors.toSet());
+        Map<Long, Lesson> lessons = lessonRepository.findAllById(lessonIds).stream()
+                .collect(Collectors.toMap(Lesson::getId, Function.identity()));
+        Map<Long, User> students = userRepository.findAllById(studentIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        List<LessonProgress> rows = new ArrayList<>(missing.size());
+        for (Map.Entry<ProgressKey, PendingProgress> entry : missing) {
+            Lesson lesson = lessons.get(entry.getKey().lessonId());
+            User student = students.get(entry.getKey().studentId());
+            if (lesson == null || student == null) {
+                logger.warn("Bỏ qua tiến trình của bài học / học sinh đã bị xóa: {}", entry.getKey());
+                continue;
+            }
+            LessonProgress progress = new LessonProgress();
+            progress.setLesson(lesson);
+            progress.setStudent(student);
+            progress.setVideoProgressSeconds(0);
+            progress.setCompleted(false);
+            progress.setCheckpointsCompleted(0);
+            progress.setTotalCheckpoints(0);
+            entry.getValue().applyTo(progress);
+            rows.add(progress);
+        }
+        progressRepository.saveAll(rows);
+    }
+
+    private record ProgressKey(Long studentId, Long lessonId) {}
+
+    private record PendingProgress(Integer videoProgressSeconds, Integer checkpointsCompleted,
+                                   Integer totalCheckpoints, Double quizScore) {
+
+        // this là cập nhật cũ hơn, newer là cập nhật mới hơn
+        PendingProgress merge(PendingProgress newer) {
+            return new PendingProgress(
+                    max(videoProgressSeconds, newer.videoProgressSeconds),
+                    newer.checkpointsCompleted != null ? newer.checkpointsCompleted : checkpointsCompleted,
+                    newer.totalCheckpoints != null ? newer.totalCheckpoints : totalCheckpoints,
+                    newer.quizScore != null ? newer.quizScore : quizScore);
+        }
+
+        void applyTo(LessonProgress progress) {
+            progress.setVideoProgressSeconds(max(progress.getVideoProgressSeconds(), videoProgressSeconds));
+            if (checkpointsCompleted != null) {
+                progress.setCheckpointsCompleted(checkpointsCompleted);
+            }
+            if (totalCheckpoints != null) {
+                progress.setTotalCheckpoints(totalCheckpoints);
+            }
+            if (quizScore != null) {
+                progress.setQuizScore(quizScore);
+            }
+            progress.setCompleted(ProgressService.isLessonCompleted(progress));
+        }
+
+        private static Integer max(Integer current, Integer incoming) {
+            if (incoming == null) return current;
+            if (current == null) return incoming;
+            return Math.max(current, incoming);
+        }
+    }
+}
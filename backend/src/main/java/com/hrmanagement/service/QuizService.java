@@ -5,10 +5,8 @@ import com.hrmanagement.model.Lesson;
 import com.hrmanagement.model.User;
 import com.hrmanagement.repository.FinalQuizRepository;
 import com.hrmanagement.repository.LessonRepository;
-import com.hrmanagement.repository.UserRepository;
+import com.hrmanagement.security.services.CurrentUserProvider;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -25,18 +23,13 @@ public class QuizService {
     private LessonRepository lessonRepository;
 
     @Autowired
-    private UserRepository userRepository;
-
-    private User getCurrentUser() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        String username;
-        if (principal instanceof UserDetails) {
-            username = ((UserDetails) principal).getUsername();
-        } else {
-            username = principal.toString();
-        }
-        return userRepository.findByEmail(username)
-                .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng với email: " + username));
+    private CurrentUserProvider currentUserProvider;
+
+    @Autowired
+    private ContentVersionRegistry contentVersions;
+
+    public String getQuizEtag(Long lessonId) {
+        return contentVersions.lessonEtag(lessonId, "quiz", "all");
     }
 
     public List<FinalQuiz> getQuizzesByLessonId(Long lessonId) {
@@ -45,7 +38,7 @@ public class QuizService {
 
     @Transactional
     public FinalQuiz createQuiz(Long lessonId, FinalQuiz quiz) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         if (!"teacher".equalsIgnoreCase(currentUser.getRole()) && !"admin".equalsIgnoreCase(currentUser.getRole())) {
             throw new RuntimeException("Chỉ giáo viên hoặc admin mới có thể tạo quiz.");
         }
@@ -64,12 +57,13 @@ public class QuizService {
         }
 
         quiz.setLesson(lesson);
+        contentVersions.bumpLesson(lessonId, false);
         return quizRepository.save(quiz);
     }
 
     @Transactional
     public FinalQuiz updateQuiz(Long lessonId, Long quizId, FinalQuiz quizDetails) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         FinalQuiz quiz = quizRepository.findById(quizId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy quiz để cập nhật"));
 
@@ -87,12 +81,13 @@ public class QuizService {
         if (quizDetails.getExplanation() != null) quiz.setExplanation(quizDetails.getExplanation());
         if (quizDetails.getQuestionType() != null) quiz.setQuestionType(quizDetails.getQuestionType());
 
+        contentVersions.bumpLesson(lessonId, false);
         return quizRepository.save(quiz);
     }
 
     @Transactional
     public void deleteQuiz(Long lessonId, Long quizId) {
-        User currentUser = getCurrentUser();
+        User currentUser = currentUserProvider.getCurrentUser();
         FinalQuiz quiz = quizRepository.findById(quizId)
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy quiz để xóa"));
 
@@ -105,5 +100,6 @@ public class QuizService {
         }
 
         quizRepository.delete(quiz);
+        contentVersions.bumpLesson(lessonId, false);
     }
 }
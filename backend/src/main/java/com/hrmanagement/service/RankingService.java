@@ -1,16 +1,16 @@
 package com.hrmanagement.service;
 
-import com.hrmanagement.model.Lesson;
 import com.hrmanagement.model.LessonProgress;
 import com.hrmanagement.model.User;
+import com.hrmanagement.payload.response.StudentRankResponse;
 import com.hrmanagement.repository.LessonProgressRepository;
-import com.hrmanagement.repository.LessonRepository;
+import com.hrmanagement.repository.LessonProgressRepository.ProgressScoreView;
 import com.hrmanagement.repository.UserRepository;
+import com.hrmanagement.security.services.CurrentUserProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 public class RankingService {
@@ -19,94 +19,261 @@ public class RankingService {
     private UserRepository userRepository;
 
     @Autowired
-    private LessonProgressRepository lessonProgressRepository;
+    private CurrentUserProvider currentUserProvider;
 
     @Autowired
-    private LessonRepository lessonRepository;
+    private LessonProgressRepository lessonProgressRepository;
+
+    // Sắp xếp theo số sao giảm dần, cùng số sao thì theo id tăng dần
+    private static final Comparator<StudentScore> RANK_ORDER =
+            Comparator.comparingInt((StudentScore s) -> s.stars).reversed()
+                    .thenComparingLong(s -> s.studentId);
+
+    private final Object lock = new Object();
+
+    // Bảng xếp hạng giữ trong bộ nhớ, được nạp 1 lần rồi cập nhật dần theo từng thay đổi tiến trình
+    private final Map<Long, StudentScore> scores = new HashMap<>();
+    private final OrderStatisticTree<StudentScore> leaderboard = new OrderStatisticTree<>(RANK_ORDER);
+    private volatile boolean loaded = false;
 
     /**
-     * Tính toán số sao cho một học sinh dựa trên tiến trình học tập
-     * Công thức: overallProgress / 5 (5% = 1 sao)
+     * Tính % hoàn thành của một bài học (giữ nguyên công thức cũ):
+     * completed = 100%, ngược lại video (50%) + checkpoints (30%) + quiz (20%)
      */
-    private int calculateStars(Long studentId) {
-        List<LessonProgress> progressList = lessonProgressRepository.findByStudentId(studentId);
-        
-        if (progressList == null || progressList.isEmpty()) {
+    static double lessonPercent(Boolean completed, Integer videoProgressSeconds, Integer totalDuration,
+                                Integer checkpointsCompleted, Integer totalCheckpoints, Double quizScore) {
+        if (completed != null && completed) {
+            return 100;
+        }
+        if (videoProgressSeconds == null || totalDuration == null || totalDuration <= 0) {
             return 0;
         }
+        double videoProgress = ((double) videoProgressSeconds / totalDuration) * 50;
+
+        double checkpointProgress = 0;
+        if (totalCheckpoints != null && totalCheckpoints > 0 && checkpointsCompleted != null) {
+            checkpointProgress = ((double) checkpointsCompleted / totalCheckpoints) * 30;
+        }
+
+        double quizProgress = 0;
+        if (quizScore != null) {
+            quizProgress = quizScore * 0.2;
+        }
+
+        return videoProgress + checkpointProgress + quizProgress;
+    }
+
+    /**
+     * Lấy một trang của bảng xếp hạng: O(log n + limit), không sắp xếp lại mỗi request
+     */
+    public List<StudentRankResponse> getRankingPage(int offset, int limit) {
+        synchronized (lock) {
+            ensureLoaded();
+            List<StudentScore> page = leaderboard.range(offset, limit);
+            List<StudentRankResponse> ranking = new ArrayList<>(page.size());
+            int rank = offset + 1;
+            for (StudentScore score : page) {
+                ranking.add(toResponse(rank++, score));
+            }
+            return ranking;
+        }
+    }
+
+    /**
+     * Thứ hạng của một học sinh trong O(log n)
+     */
+    public StudentRankResponse getStudentRank(Long studentId) {
+        synchronized (lock) {
+            ensureLoaded();
+            StudentScore score = scores.get(studentId);
+            if (score == null) {
+                throw new RuntimeException("Không tìm thấy học sinh trong bảng xếp hạng");
+            }
+            return toResponse(leaderboard.indexOf(score) + 1, score);
+        }
+    }
+
+    // Thứ hạng của học sinh đang đăng nhập
+    public StudentRankResponse getCurrentStudentRank() {
+        return getStudentRank(currentUserProvider.getCurrentUserId());
+    }
+
+    public int getTotalStudents() {
+        synchronized (lock) {
+            ensureLoaded();
+            return leaderboard.size();
+        }
+    }
+
+    /**
+     * Cập nhật điểm của học sinh sau khi một dòng lesson_progress được lưu.
+     * progress phải có sẵn lesson (đã load) để lấy totalDuration.
+     */
+    public void recordProgress(LessonProgress progress) {
+        if (progress.getStudent() == null || progress.getLesson() == null) return;
+
+        Long studentId = progress.getStudent().getId();
+        Long lessonId = progress.getLesson().getId();
+        double percent = lessonPercent(progress.getCompleted(), progress.getVideoProgressSeconds(),
+                progress.getLesson().getTotalDuration(), progress.getCheckpointsCompleted(),
+                progress.getTotalCheckpoints(), progress.getQuizScore());
+
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (lock) {
+                if (!loaded) return; // Lần đọc đầu tiên sẽ nạp lại từ DB
+                StudentScore score = scores.get(studentId);
+                if (score == null) return; // Không phải học sinh
+                leaderboard.remove(score);
+                score.lessonPercents.put(lessonId, percent);
+                score.recalculateStars();
+                leaderboard.add(score);
+            }
+        });
+    }
 
-        double totalProgress = 0;
-        int count = 0;
-
-        for (LessonProgress progress : progressList) {
-            // Fetch lesson từ repository để tránh LAZY loading issue
-            Long lessonId = progress.getLesson() != null ? progress.getLesson().getId() : null;
-            if (lessonId == null) continue;
-            
-            Lesson lesson = lessonRepository.findById(lessonId).orElse(null);
-            if (lesson == null) continue;
-
-            double lessonProgress = 0;
-            
-            if (progress.getCompleted() != null && progress.getCompleted()) {
-                lessonProgress = 100;
-            } else if (progress.getVideoProgressSeconds() != null && lesson.getTotalDuration() != null && lesson.getTotalDuration() > 0) {
-                // Tính progress từ video (50%), checkpoints (30%), quiz (20%)
-                double videoProgress = ((double) progress.getVideoProgressSeconds() / lesson.getTotalDuration()) * 50;
-                
-                double checkpointProgress = 0;
-                if (progress.getTotalCheckpoints() != null && progress.getTotalCheckpoints() > 0) {
-                    checkpointProgress = ((double) progress.getCheckpointsCompleted() / progress.getTotalCheckpoints()) * 30;
+    /**
+     * Tính lại điểm cho một nhóm học sinh bằng 1 truy vấn (dùng khi nhiều dòng thay đổi cùng lúc)
+     */
+    public void refreshStudents(Collection<Long> studentIds) {
+        if (studentIds == null || studentIds.isEmpty() || !loaded) return;
+
+        // Đọc ngay trong transaction hiện tại (đã flush), chỉ áp dụng vào bộ nhớ sau khi commit
+        List<ProgressScoreView> rows = lessonProgressRepository.findScoreViewsByStudentIdIn(studentIds);
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (lock) {
+                if (!loaded) return;
+                for (Long studentId : studentIds) {
+                    StudentScore score = scores.get(studentId);
+                    if (score == null) continue;
+                    leaderboard.remove(score);
+                    score.lessonPercents.clear();
                 }
-                
-                double quizProgress = 0;
-                if (progress.getQuizScore() != null) {
-                    quizProgress = progress.getQuizScore() * 0.2;
+                applyRows(rows);
+                for (Long studentId : studentIds) {
+                    StudentScore score = scores.get(studentId);
+                    if (score == null) continue;
+                    score.recalculateStars();
+                    leaderboard.add(score);
                 }
-                
-                lessonProgress = videoProgress + checkpointProgress + quizProgress;
             }
-            
-            totalProgress += lessonProgress;
-            count++;
-        }
+        });
+    }
+
+    // Học sinh mới đăng ký: thêm vào bảng xếp hạng với 0 sao
+    public void addStudent(User user) {
+        if (!"student".equalsIgnoreCase(user.getRole())) return;
+        Long studentId = user.getId();
+        String name = user.getName();
+        String email = user.getEmail();
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (lock) {
+                if (!loaded || scores.containsKey(studentId)) return;
+                StudentScore score = new StudentScore(studentId, name, email);
+                scores.put(studentId, score);
+                leaderboard.add(score);
+            }
+        });
+    }
 
-        if (count == 0) return 0;
-        
-        double overallProgress = totalProgress / count;
-        return (int) Math.floor(overallProgress / 5); // 5% = 1 sao
+    // Đổi tên/email hiển thị, không ảnh hưởng thứ hạng
+    public void updateStudent(User user) {
+        Long studentId = user.getId();
+        String name = user.getName();
+        String email = user.getEmail();
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (lock) {
+                StudentScore score = scores.get(studentId);
+                if (score == null) return;
+                score.name = name;
+                score.email = email;
+            }
+        });
+    }
+
+    public void removeStudent(Long studentId) {
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (lock) {
+                StudentScore score = scores.remove(studentId);
+                if (score != null) {
+                    leaderboard.remove(score);
+                }
+            }
+        });
     }
 
     /**
-     * Lấy bảng xếp hạng tất cả học sinh dựa trên số sao
+     * Bỏ toàn bộ bảng xếp hạng, lần đọc sau sẽ nạp lại.
+     * Dùng khi thay đổi ảnh hưởng nhiều học sinh (sửa thời lượng / xóa bài học).
      */
-    public List<Map<String, Object>> getStudentRanking() {
-        List<User> students = userRepository.findAll().stream()
-                .filter(user -> "student".equalsIgnoreCase(user.getRole()))
-                .collect(Collectors.toList());
-
-        List<Map<String, Object>> ranking = new ArrayList<>();
-
-        for (User student : students) {
-            int stars = calculateStars(student.getId());
-            
-            Map<String, Object> studentRank = new HashMap<>();
-            studentRank.put("id", student.getId());
-            studentRank.put("name", student.getName());
-            studentRank.put("email", student.getEmail());
-            studentRank.put("stars", stars);
-            
-            ranking.add(studentRank);
+    public void invalidate() {
+        TransactionCallbacks.afterCommit(() -> {
+            synchronized (lock) {
+                loaded = false;
+                scores.clear();
+                leaderboard.clear();
+            }
+        });
+    }
+
+    // Nạp toàn bộ bảng xếp hạng bằng 2 truy vấn: danh sách học sinh + toàn bộ tiến trình (đã join lesson)
+    private void ensureLoaded() {
+        if (loaded) return;
+
+        scores.clear();
+        leaderboard.clear();
+        for (User student : userRepository.findByRoleIgnoreCase("student")) {
+            scores.put(student.getId(), new StudentScore(student.getId(), student.getName(), student.getEmail()));
+        }
+        applyRows(lessonProgressRepository.findAllScoreViews());
+        for (StudentScore score : scores.values()) {
+            score.recalculateStars();
+            leaderboard.add(score);
         }
+        loaded = true;
+    }
 
-        // Sắp xếp theo số sao giảm dần
-        ranking.sort((a, b) -> {
-            Integer starsA = (Integer) a.get("stars");
-            Integer starsB = (Integer) b.get("stars");
-            return starsB.compareTo(starsA);
-        });
+    private static StudentRankResponse toResponse(int rank, StudentScore score) {
+        return new StudentRankResponse(rank, score.studentId, score.name, score.email, score.stars);
+    }
+
+    private void applyRows(List<ProgressScoreView> rows) {
+        for (ProgressScoreView row : rows) {
+            StudentScore score = scores.get(row.getStudentId());
+            if (score == null) continue;
+            score.lessonPercents.put(row.getLessonId(), lessonPercent(row.getCompleted(),
+                    row.getVideoProgressSeconds(), row.getTotalDuration(), row.getCheckpointsCompleted(),
+                    row.getTotalCheckpoints(), row.getQuizScore()));
+        }
+    }
+
+    private static final class StudentScore {
+        private final Long studentId;
+        private String name;
+        private String email;
+        private final Map<Long, Double> lessonPercents = new HashMap<>();
+        private int stars;
+
+        private StudentScore(Long studentId, String name, String email) {
+            this.studentId = studentId;
+            this.name = name;
+            this.email = email;
+        }
 
-        return ranking;
+        /**
+         * Công thức: overallProgress / 5 (5% = 1 sao).
+         * Cộng lại từ đầu thay vì cộng dồn delta để tránh sai số dấu phẩy động.
+         */
+        private void recalculateStars() {
+            if (lessonPercents.isEmpty()) {
+                stars = 0;
+                return;
+            }
+            double totalProgress = 0;
+            for (double percent : lessonPercents.values()) {
+                totalProgress += percent;
+            }
+            double overallProgress = totalProgress / lessonPercents.size();
+            stars = (int) Math.floor(overallProgress / 5);
+        }
     }
 }
-
@@ -0,0 +1,65 @@
+package com.hrmanagement.service;
+
+import com.hrmanagement.config.SecondLevelCacheConfig;
+import com.hrmanagement.payload.response.CacheRegionStatsResponse;
+import com.hrmanagement.security.services.CurrentUserProvider;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import javax.cache.Cache;
+import javax.cache.CacheManager;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Thống kê hit / miss của second-level cache theo region cho admin.
+ */
+@Service
+public class SecondLevelCacheStatsService {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private CacheManager hibernateCacheManager;
+
+    @Autowired
+    private CurrentUserProvider currentUserProvider;
+
+    public List<CacheRegionStatsResponse> getStats() {
+        if (!"admin".equalsIgnoreCase(currentUserProvider.getCurrentRole())) {
+            throw new RuntimeException("Chỉ admin mới có thể xem thống kê cache.");
+        }
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        if (!statistics.isStatisticsEnabled()) {
+            throw new RuntimeException("Thống kê Hibernate đang tắt (hibernate.generate_statistics=false).");
+        }
+
+        List<CacheRegionStatsResponse> regions = new ArrayList<>();
+        for (String region : SecondLevelCacheConfig.ENTITY_REGIONS) {
+            regions.add(toResponse(region, statistics.getDomainDataRegionStatistics(region)));
+        }
+        regions.add(toResponse(SecondLevelCacheConfig.QUERY_REGION,
+                statistics.getQueryRegionStatistics(SecondLevelCacheConfig.QUERY_REGION)));
+        return regions;
+    }
+
+    private CacheRegionStatsResponse toResponse(String region, CacheRegionStatistics regionStatistics) {
+        // Region chưa được dùng lần nào (hoặc cache đang tắt) thì Hibernate chưa có thống kê
+        long hits = regionStatistics != null ? regionStatistics.getHitCount() : 0;
+        long misses = regionStatistics != null ? regionStatistics.getMissCount() : 0;
+        long puts = regionStatistics != null ? regionStatistics.getPutCount() : 0;
+        double hitRatio = hits + misses > 0 ? (double) hits / (hits + misses) : 0.0;
+        return new CacheRegionStatsResponse(region, hits, misses, puts, hitRatio, size(region));
+    }
+
+    private long size(String region) {
+        Cache<Object, Object> cache = hibernateCacheManager.getCache(region);
+        if (cache == null) return 0;
+        return cache.unwrap(com.github.benmanes.caffeine.cache.Cache.class).estimatedSize();
+    }
+}
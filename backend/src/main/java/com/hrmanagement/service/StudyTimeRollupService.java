@@ -0,0 +1,224 @@
+package com.hrmanagement.service;
+
+import com.hrmanagement.model.StudyTimeRollup;
+import com.hrmanagement.model.User;
+import com.hrmanagement.payload.response.StudentStudyTotalResponse;
+import com.hrmanagement.payload.response.StudyRollupResponse;
+import com.hrmanagement.repository.StudyTimeRollupRepository;
+import com.hrmanagement.security.services.CurrentUserProvider;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+import static com.hrmanagement.model.StudyTimeRollup.GLOBAL_STUDENT_ID;
+import static com.hrmanagement.model.StudyTimeRollup.PERIOD_MONTH;
+import static com.hrmanagement.model.StudyTimeRollup.PERIOD_WEEK;
+
+/**
+ * Bảng tổng hợp thời gian học theo tuần / tháng cho biểu đồ của giáo viên và admin.
+ * - stopStudy cộng dồn vào 4 dòng (toàn hệ thống + học sinh, tuần + tháng) trong cùng transaction.
+ * - Job compaction định kỳ tính lại toàn bộ từ study_time để sửa sai lệch và nạp dữ liệu cũ.
+ *
+ * Thứ tự khóa: cả stopStudy và compaction đều cập nhật dòng toàn hệ thống của tuần rồi của tháng
+ * hiện tại trước tiên. Compaction giữ khóa 2 dòng này trong lúc đọc study_time nên stopStudy đang chạy
+ * dở sẽ chờ compaction commit rồi mới cộng dồn, không bị mất hay cộng trùng.
+ */
+@Service
+public class StudyTimeRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StudyTimeRollupService.class);
+
+    private static final int DEFAULT_PERIODS = 12;
+    private static final int MAX_PERIODS = 260;
+    private static final List<String> PERIOD_TYPES = List.of(PERIOD_WEEK, PERIOD_MONTH);
+
+    private static final String INSERT_SQL = "INSERT INTO study_time_rollup " +
+            "(student_id, period_type, period_start, total_seconds, updated_at) VALUES (?, ?, ?, ?, ?)";
+
+    @Autowired
+    private StudyTimeRollupRepository rollupRepository;
+
+    @Autowired
+    private CurrentUserProvider currentUserProvider;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Cộng dồn thời gian học vừa ghi vào các dòng rollup; phải chạy trong transaction của stopStudy.
+     */
+    public void recordStudy(Long studentId, LocalDate date, long seconds) {
+        if (seconds <= 0) return;
+        LocalDateTime now = LocalDateTime.now();
+        for (String periodType : PERIOD_TYPES) {
+            addSeconds(GLOBAL_STUDENT_ID, periodType, StudyTimeRollup.periodStart(periodType, date), seconds, now);
+        }
+        for (String periodType : PERIOD_TYPES) {
+            addSeconds(studentId, periodType, StudyTimeRollup.periodStart(periodType, date), seconds, now);
+        }
+    }
+
+    /**
+     * Chuỗi thời gian học theo kỳ trong [from, to], kỳ không có dữ liệu trả về 0.
+     * studentId = null là tổng toàn hệ thống.
+     */
+    public List<StudyRollupResponse> getSeries(String periodType, Long studentId, LocalDate from, LocalDate to) {
+        requireTeacherOrAdmin();
+        String period = normalizePeriod(periodType);
+
+        LocalDate end = StudyTimeRollup.periodStart(period, to != null ? to : LocalDate.now());
+        LocalDate start = from != null
+                ? StudyTimeRollup.periodStart(period, from)
+                : minusPeriods(period, end, DEFAULT_PERIODS - 1);
+        if (start.isAfter(end)) {
+            throw new RuntimeException("Ngày bắt đầu phải trước ngày kết thúc.");
+        }
+        if (!minusPeriods(period, end, MAX_PERIODS).isBefore(start)) {
+            throw new RuntimeException("Chỉ xem được tối đa " + MAX_PERIODS + " kỳ một lần.");
+        }
+
+        Map<LocalDate, Long> totals = new HashMap<>();
+        for (StudyTimeRollup rollup : rollupRepository.findByStudentIdAndPeriodTypeAndPeriodStartBetweenOrderByPeriodStartAsc(
+                studentId != null ? studentId : GLOBAL_STUDENT_ID, period, start, end)) {
+            totals.put(rollup.getPeriodStart(), rollup.getTotalSeconds());
+        }
+
+        List<StudyRollupResponse> series = new ArrayList<>();
+        for (LocalDate periodStart = start; !periodStart.isAfter(end); periodStart = plusPeriod(period, periodStart)) {
+            series.add(new StudyRollupResponse(period, periodStart, totals.getOrDefault(periodStart, 0L)));
+        }
+        return series;
+    }
+
+    // Thời gian học của từng học sinh trong kỳ chứa date (mặc định kỳ hiện tại)
+    public List<StudentStudyTotalResponse> getStudentTotals(String periodType, LocalDate date) {
+        requireTeacherOrAdmin();
+        String period = normalizePeriod(periodType);
+        LocalDate periodStart = StudyTimeRollup.periodStart(period, date != null ? date : LocalDate.now());
+        return rollupRepository.findStudentTotals(period, periodStart).stream()
+                .map(v -> new StudentStudyTotalResponse(v.getStudentId(), v.getName(), v.getEmail(), v.getTotalSeconds()))
+                .toList();
+    }
+
+    // Admin chạy lại compaction ngay lập tức
+    public int rebuildNow() {
+        User currentUser = currentUserProvider.getCurrentUser();
+        if (!"admin".equalsIgnoreCase(currentUser.getRole())) {
+            throw new RuntimeException("Chỉ admin mới có thể tính lại thống kê thời gian học.");
+        }
+        return compact();
+    }
+
+    @Scheduled(cron = "${study.rollup.compaction-cron:0 30 2 * * *}")
+    public void scheduledCompaction() {
+        compact();
+    }
+
+    // Lần chạy đầu tiên sau khi thêm bảng rollup: nạp từ dữ liệu study_time sẵn có
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (rollupRepository.count() == 0) {
+            compact();
+        }
+    }
+
+    /**
+     * Tính lại toàn bộ bảng rollup từ study_time trong 1 transaction. Trả về số dòng rollup.
+     */
+    public synchronized int compact() {
+        long startedAt = System.currentTimeMillis();
+        try {
+            Integer rows = transactionTemplate.execute(status -> rebuild());
+            logger.info("✅ Đã tính lại {} dòng thống kê thời gian học trong {} ms.", rows, System.currentTimeMillis() - startedAt);
+            return rows != null ? rows : 0;
+        } catch (RuntimeException e) {
+            logger.error("❌ Không thể tính lại thống kê thời gian học: {}", e.getMessage());
+            throw e;
+        }
+    }
+
+    private int rebuild() {
+        // Giữ khóa các dòng toàn hệ thống của kỳ hiện tại (cùng thứ tự với recordStudy)
+        LocalDate today = LocalDate.now();
+        LocalDateTime now = LocalDateTime.now();
+        for (String periodType : PERIOD_TYPES) {
+            addSeconds(GLOBAL_STUDENT_ID, periodType, StudyTimeRollup.periodStart(periodType, today), 0, now);
+        }
+
+        Map<RollupKey, long[]> totals = new HashMap<>();
+        jdbcTemplate.query("SELECT student_id, date, total_seconds FROM study_time WHERE total_seconds > 0", rs -> {
+            long studentId = rs.getLong(1);
+            LocalDate date = rs.getDate(2).toLocalDate();
+            long seconds = rs.getLong(3);
+            for (String periodType : PERIOD_TYPES) {
+                LocalDate periodStart = StudyTimeRollup.periodStart(periodType, date);
+                totals.computeIfAbsent(new RollupKey(studentId, periodType, periodStart), k -> new long[1])[0] += seconds;
+                totals.computeIfAbsent(new RollupKey(GLOBAL_STUDENT_ID, periodType, periodStart), k -> new long[1])[0] += seconds;
+            }
+        });
+
+        rollupRepository.deleteAllRollups();
+        Timestamp updatedAt = Timestamp.valueOf(now);
+        List<Object[]> batch = new ArrayList<>(totals.size());
+        totals.forEach((key, total) -> batch.add(new Object[]{
+                key.studentId(), key.periodType(), Date.valueOf(key.periodStart()), total[0], updatedAt}));
+        jdbcTemplate.batchUpdate(INSERT_SQL, batch);
+        return batch.size();
+    }
+
+    private void addSeconds(Long studentId, String periodType, LocalDate periodStart, long seconds, LocalDateTime now) {
+        if (rollupRepository.addSeconds(studentId, periodType, periodStart, seconds, now) > 0) return;
+        // Dòng chưa có (hoặc vừa bị compaction xóa rồi tạo lại): tạo rồi cộng lại
+        rollupRepository.insertIfAbsent(studentId, periodType, periodStart, now);
+        rollupRepository.addSeconds(studentId, periodType, periodStart, seconds, now);
+    }
+
+    private void requireTeacherOrAdmin() {
+        String role = currentUserProvider.getCurrentRole();
+        if (!"teacher".equalsIgnoreCase(role) && !"admin".equalsIgnoreCase(role)) {
+            throw new RuntimeException("Chỉ giáo viên hoặc admin mới có thể xem thống kê thời gian học.");
+        }
+    }
+
+    private static String normalizePeriod(String periodType) {
+        String period = periodType != null ? periodType.toLowerCase(Locale.ROOT) : PERIOD_WEEK;
+        if (!PERIOD_TYPES.contains(period)) {
+            throw new RuntimeException("Kỳ thống kê không hợp lệ: " + periodType + " (week hoặc month)");
+        }
+        return period;
+    }
+
+    private static LocalDate plusPeriod(String periodType, LocalDate periodStart) {
+        return PERIOD_WEEK.equals(periodType) ? periodStart.plusWeeks(1) : periodStart.plusMonths(1);
+    }
+
+    private static LocalDate minusPeriods(String periodType, LocalDate periodStart, int count) {
+        return PERIOD_WEEK.equals(periodType) ? periodStart.minusWeeks(count) : periodStart.minusMonths(count);
+    }
+
+    private record RollupKey(Long studentId, String periodType, LocalDate periodStart) {}
+}
@@ -0,0 +1,219 @@
+package com.hrmanagement.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.hrmanagement.model.AssignmentSubmission;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Chấm bài bất đồng bộ (bật bằng grading.async.enabled) cho lúc cả lớp nộp sát hạn:
+ * request nộp bài chỉ lưu bài với trạng thái pending rồi đưa id vào hàng đợi có giới hạn,
+ * một nhóm worker cố định lấy theo lô, chấm bằng AnswerKeyCache và ghi điểm bằng 1 JDBC batch.
+ *
+ * Hàng đợi đầy thì bài vẫn nằm trong DB ở trạng thái pending và được job quét định kỳ đưa lại vào hàng đợi,
+ * nên không mất bài khi quá tải hay khi khởi động lại. Điểm chỉ được ghi nếu bài chưa bị nộp lại
+ * (updated_at không đổi) trong lúc chấm.
+ */
+@Component
+public class SubmissionGradingQueue {
+
+    private static final Logger logger = LoggerFactory.getLogger(SubmissionGradingQueue.class);
+
+    private static final String LOAD_SQL = "SELECT id, assignment_id, content, updated_at FROM assignment_submissions " +
+            "WHERE id IN (:ids) AND grading_status = '" + AssignmentSubmission.GRADING_PENDING + "'";
+
+    private static final String UPDATE_SQL = "UPDATE assignment_submissions " +
+            "SET score = COALESCE(?, score), grading_status = ? " +
+            "WHERE id = ? AND grading_status = '" + AssignmentSubmission.GRADING_PENDING + "' AND updated_at = ?";
+
+    private static final String SWEEP_SQL = "SELECT id FROM assignment_submissions " +
+            "WHERE grading_status = '" + AssignmentSubmission.GRADING_PENDING + "' AND updated_at < ? ORDER BY id LIMIT ?";
+
+    @Autowired
+    private AnswerKeyCache answerKeyCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${grading.async.enabled:false}")
+    private boolean enabled;
+
+    @Value("${grading.async.workers:2}")
+    private int workers;
+
+    @Value("${grading.async.batch-size:100}")
+    private int batchSize;
+
+    @Value("${grading.async.queue-capacity:10000}")
+    private int queueCapacity;
+
+    // Bài pending lâu hơn thời gian này (không còn trong hàng đợi do đầy / khởi động lại) sẽ được quét lại
+    @Value("${grading.async.sweep-age-seconds:30}")
+    private long sweepAgeSeconds;
+
+    private BlockingQueue<Long> queue;
+    private ExecutorService workerPool;
+    private TransactionTemplate transactionTemplate;
+    private Counter acceptedCounter;
+    private Counter overflowCounter;
+    private Counter gradedCounter;
+    private Counter manualCounter;
+    private Timer batchTimer;
+
+    @PostConstruct
+    void init() {
+        queue = new ArrayBlockingQueue<>(Math.max(1, queueCapacity));
+        transactionTemplate = new TransactionTemplate(transactionManager);
+
+        Gauge.builder("grading.queue.depth", queue, Collection::size)
+                .description("Số bài nộp đang chờ chấm trong hàng đợi")
+                .register(meterRegistry);
+        Gauge.builder("grading.queue.remaining_capacity", queue, BlockingQueue::remainingCapacity)
+                .register(meterRegistry);
+        acceptedCounter = Counter.builder("grading.queue.accepted").register(meterRegistry);
+        overflowCounter = Counter.builder("grading.queue.overflow")
+                .description("Bài không vào được hàng đợi (đầy), chờ job quét")
+                .register(meterRegistry);
+        gradedCounter = Counter.builder("grading.submissions").tag("result", "graded").register(meterRegistry);
+        manualCounter = Counter.builder("grading.submissions").tag("result", "manual").register(meterRegistry);
+        batchTimer = Timer.builder("grading.batch").description("Thời gian chấm + ghi một lô").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+        AtomicInteger threadIndex = new AtomicInteger();
+        workerPool = Executors.newFixedThreadPool(workers, r -> {
+            Thread thread = new Thread(r, "grading-worker-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            workerPool.execute(this::workLoop);
+        }
+        // Bài còn pending từ lần chạy trước
+        sweep(0);
+    }
+
+    /**
+     * Đưa bài vào hàng đợi sau khi transaction nộp bài commit (để worker đọc được dữ liệu mới).
+     */
+    public void enqueueAfterCommit(Long submissionId) {
+        TransactionCallbacks.afterCommit(() -> {
+            if (queue.offer(submissionId)) {
+                acceptedCounter.increment();
+            } else {
+                overflowCounter.increment();
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${grading.async.sweep-interval-ms:30000}")
+    public void scheduledSweep() {
+        if (enabled && workerPool != null) {
+            sweep(sweepAgeSeconds);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (workerPool != null) {
+            // Bài còn trong hàng đợi vẫn ở trạng thái pending trong DB, lần khởi động sau sẽ chấm tiếp
+            workerPool.shutdownNow();
+        }
+    }
+
+    private void sweep(long minAgeSeconds) {
+        int room = queue.remainingCapacity();
+        if (room == 0) return;
+        Timestamp before = Timestamp.valueOf(LocalDateTime.now().minusSeconds(minAgeSeconds));
+        List<Long> ids = jdbcTemplate.queryForList(SWEEP_SQL, Long.class, before, room);
+        Set<Long> queued = new HashSet<>(queue);
+        int added = 0;
+        for (Long id : ids) {
+            if (!queued.contains(id) && queue.offer(id)) added++;
+        }
+        if (added > 0) {
+            logger.info("Đưa lại {} bài nộp đang chờ chấm vào hàng đợi", added);
+        }
+    }
+
+    private void workLoop() {
+        List<Long> batch = new ArrayList<>(batchSize);
+        while (!Thread.currentThread().isInterrupted()) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch, batchSize - 1);
+                Timer.Sample sample = Timer.start(meterRegistry);
+                gradeBatch(batch);
+                sample.stop(batchTimer);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                // Bài của lô lỗi vẫn pending, job quét sẽ thử lại
+                logger.error("Lỗi khi chấm {} bài nộp: {}", batch.size(), e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void gradeBatch(List<Long> ids) {
+        List<Object[]> updates = new ArrayList<>(ids.size());
+        namedParameterJdbcTemplate.query(LOAD_SQL, Map.of("ids", new HashSet<>(ids)), rs -> {
+            long assignmentId = rs.getLong("assignment_id");
+            Double score = answerKeyCache.get(assignmentId).grade(objectMapper.getFactory(), rs.getString("content"));
+            String status = score != null ? AssignmentSubmission.GRADING_GRADED : AssignmentSubmission.GRADING_MANUAL;
+            updates.add(new Object[]{score, status, rs.getLong("id"), rs.getTimestamp("updated_at")});
+        });
+        if (updates.isEmpty()) return;
+
+        int[] argTypes = {Types.DOUBLE, Types.VARCHAR, Types.BIGINT, Types.TIMESTAMP};
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPDATE_SQL, updates, argTypes));
+        for (Object[] update : updates) {
+            (update[0] != null ? gradedCounter : manualCounter).increment();
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.hrmanagement.service;
+
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Chạy các cập nhật bộ nhớ (bảng xếp hạng, cache...) chỉ sau khi transaction đã commit,
+ * để dữ liệu trong RAM không lệch với DB khi transaction bị rollback.
+ * Nếu không có transaction đang chạy thì thực thi ngay.
+ */
+final class TransactionCallbacks {
+
+    private TransactionCallbacks() {}
+
+    static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
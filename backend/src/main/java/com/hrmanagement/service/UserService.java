@@ -1,10 +1,11 @@
 package com.hrmanagement.service;
 
 import com.hrmanagement.model.User;
+import com.hrmanagement.repository.LessonRepository;
 import com.hrmanagement.repository.UserRepository;
+import com.hrmanagement.security.services.CurrentUserProvider;
+import com.hrmanagement.security.services.UserPrincipalCache;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils; 
@@ -18,24 +19,29 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CurrentUserProvider currentUserProvider;
+
     @Autowired // <--- 2. TIÊM PasswordEncoder
     private PasswordEncoder passwordEncoder;
 
-    // --- Hàm tiện ích lấy User hiện tại (Giữ nguyên) ---
-    private User getCurrentUser() {
-        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        String username;
-        if (principal instanceof UserDetails) {
-            username = ((UserDetails) principal).getUsername();
-        } else {
-            username = principal.toString();
-        }
-        return userRepository.findByEmail(username)
-                .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng với email: " + username));
-    }
+    @Autowired
+    private RankingService rankingService;
+
+    @Autowired
+    private UserPrincipalCache principalCache;
+
+    @Autowired
+    private LessonRepository lessonRepository;
+
+    @Autowired
+    private ContentVersionRegistry contentVersions;
+
+    @Autowired
+    private CheckpointTimelineCache checkpointTimelineCache;
 
     public User getCurrentUserProfile() {
-        return getCurrentUser();
+        return currentUserProvider.getCurrentUser();
     }
     
     public User findByEmail(String email) {
@@ -50,12 +56,14 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng để cập nhật"));
         
         // 1. Kiểm tra bảo mật
-        if (!getCurrentUser().getId().equals(id)) {
+        if (!currentUserProvider.getCurrentUserId().equals(id)) {
             throw new RuntimeException("Không có quyền cập nhật thông tin người dùng này");
         }
         
         // 2. Cập nhật các trường (chỉ khi có giá trị)
+        boolean nameChanged = false;
         if (StringUtils.hasText(userDetails.getName())) {
+            nameChanged = !userDetails.getName().equals(currentUser.getName());
             currentUser.setName(userDetails.getName());
         }
         if (StringUtils.hasText(userDetails.getPhone())) {
@@ -66,7 +74,14 @@ public class UserService {
         }
 
         // Lưu và trả về đối tượng User đã được cập nhật
-        return userRepository.save(currentUser);
+        User savedUser = userRepository.save(currentUser);
+        rankingService.updateStudent(savedUser);
+        evictPrincipal(savedUser.getEmail());
+        // Tên giáo viên nằm trong response bài học / catalog nên ETag của các bài đó phải đổi
+        if (nameChanged && "teacher".equalsIgnoreCase(savedUser.getRole())) {
+            contentVersions.bumpLessons(lessonRepository.findIdsByTeacherId(id));
+        }
+        return savedUser;
     }
 
     // Cập nhật mật khẩu
@@ -76,7 +91,7 @@ public class UserService {
                 .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng để cập nhật mật khẩu"));
 
         // 1. Kiểm tra bảo mật
-        if (!getCurrentUser().getId().equals(id)) {
+        if (!currentUserProvider.getCurrentUserId().equals(id)) {
             throw new RuntimeException("Không có quyền thay đổi mật khẩu của người dùng khác");
         }
 
@@ -88,25 +103,31 @@ public class UserService {
         // 3. Mã hóa mật khẩu mới trước khi lưu
         String encodedPassword = passwordEncoder.encode(newPassword);
         user.setPassword(encodedPassword); 
+        // Các JWT đã cấp trước đó hết hiệu lực (xem JwtAuthenticationFilter)
+        user.setTokenVersion((user.getTokenVersion() != null ? user.getTokenVersion() : 0) + 1);
 
         // 4. Lưu lại user đã được cập nhật mật khẩu
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        evictPrincipal(savedUser.getEmail());
+        return savedUser;
     }
     
     public void deleteUser(Long id) {
-        User currentUser = getCurrentUser(); // Lấy người dùng đang đăng nhập
-
         // 1. Kiểm tra quyền (Giữ nguyên)
-        if (!currentUser.getId().equals(id)) {
+        if (!currentUserProvider.getCurrentUserId().equals(id)) {
             throw new RuntimeException("Không có quyền xóa người dùng này");
         }
         
         // 2. TÌM người dùng dựa trên ID nhận được (chắc chắn người dùng đó tồn tại trong DB)
         User userToDelete = userRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng để xóa"));
+        List<Long> lessonIds = lessonRepository.findIdsByTeacherId(id);
             
         // 3. Xóa người dùng đó
         userRepository.delete(userToDelete); // Dùng userToDelete thay vì currentUser (cách này an toàn hơn)
+        rankingService.removeStudent(id);
+        evictPrincipal(userToDelete.getEmail());
+        evictLessonContent(lessonIds);
     }
 
     public List<User> getAllUsers() {
@@ -116,6 +137,23 @@ public class UserService {
     public void deleteUserByAdmin(Long id) {
         User userToDelete = userRepository.findById(id)
             .orElseThrow(() -> new RuntimeException("Không tìm thấy người dùng để xóa"));
+        List<Long> lessonIds = lessonRepository.findIdsByTeacherId(id);
         userRepository.delete(userToDelete);
+        rankingService.removeStudent(id);
+        evictPrincipal(userToDelete.getEmail());
+        evictLessonContent(lessonIds);
+    }
+
+    // Bài học của giáo viên bị xóa theo cascade: đổi ETag và bỏ timeline checkpoint đã cache của các bài đó
+    private void evictLessonContent(List<Long> lessonIds) {
+        for (Long lessonId : lessonIds) {
+            checkpointTimelineCache.evict(lessonId);
+        }
+        contentVersions.bumpLessons(lessonIds);
+    }
+
+    // Xóa principal đã cache sau khi commit để request kế tiếp đọc lại từ DB
+    private void evictPrincipal(String email) {
+        TransactionCallbacks.afterCommit(() -> principalCache.evict(email));
     }
 }
\ No newline at end of file
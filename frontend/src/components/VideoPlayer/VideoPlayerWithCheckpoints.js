@@ -4,6 +4,8 @@ import Card from '../UI/Card';
 import { motion } from 'framer-motion';
 import { CheckCircleIcon, XCircleIcon } from '@heroicons/react/24/outline';
 import toast from 'react-hot-toast';
+import api from '../../utils/api';
+import { recordProgress, stopProgressHeartbeat } from '../../utils/progressHeartbeat';
 
 const VideoPlayerWithCheckpoints = ({ youtubeUrl, checkpoints, onCheckpointAnswer, lessonId }) => {
   const [currentTime, setCurrentTime] = useState(0);
@@ -14,6 +16,8 @@ const VideoPlayerWithCheckpoints = ({ youtubeUrl, checkpoints, onCheckpointAnswe
   const [showResult, setShowResult] = useState(false);
   const [isCorrect, setIsCorrect] = useState(false);
   const [isPaused, setIsPaused] = useState(false);
+  const [answerResult, setAnswerResult] = useState(null);
+  const [submitting, setSubmitting] = useState(false);
   const playerRef = useRef(null);
   const intervalRef = useRef(null);
   const playerIdRef = useRef(`youtube-player-${Date.now()}`);
@@ -88,6 +92,7 @@ const VideoPlayerWithCheckpoints = ({ youtubeUrl, checkpoints, onCheckpointAnswe
         clearInterval(intervalRef.current);
         intervalRef.current = null;
       }
+      stopProgressHeartbeat();
       if (playerRef.current) {
         try {
           playerRef.current.destroy();
@@ -126,6 +131,9 @@ const VideoPlayerWithCheckpoints = ({ youtubeUrl, checkpoints, onCheckpointAnswe
         
         const time = Math.floor(player.getCurrentTime());
         setCurrentTime(time);
+        if (time > 0) {
+          recordProgress(lessonId, time);
+        }
 
         // Check for checkpoints
         if (checkpoints && checkpoints.length > 0) {
@@ -150,6 +158,7 @@ const VideoPlayerWithCheckpoints = ({ youtubeUrl, checkpoints, onCheckpointAnswe
             setShowCheckpointModal(true);
             setUserAnswer('');
             setShowResult(false);
+            setAnswerResult(null);
             // Update ref immediately
             showCheckpointModalRef.current = true;
           }
@@ -160,8 +169,8 @@ const VideoPlayerWithCheckpoints = ({ youtubeUrl, checkpoints, onCheckpointAnswe
     }, 500); // Check every 500ms
   };
 
-  // Handle checkpoint answer submission
-  const handleCheckpointSubmit = (e) => {
+  // Handle checkpoint answer submission (graded on the server, the client never sees the correct answer beforehand)
+  const handleCheckpointSubmit = async (e) => {
     if (e) {
       e.preventDefault();
       e.stopPropagation();
@@ -172,14 +181,25 @@ const VideoPlayerWithCheckpoints = ({ youtubeUrl, checkpoints, onCheckpointAnswe
       return;
     }
 
-    const correct = userAnswer.trim() === currentCheckpoint.correctAnswer.trim();
-    setIsCorrect(correct);
-    setShowResult(true);
-    setCheckpointAnswered(new Set([...checkpointAnswered, currentCheckpoint.id]));
+    if (submitting) return;
+    setSubmitting(true);
+    try {
+      const response = await api.post(
+        `/lessons/${lessonId}/checkpoints/${currentCheckpoint.id}/answer`,
+        { answer: userAnswer }
+      );
+      setAnswerResult(response.data);
+      setIsCorrect(response.data.correct);
+      setShowResult(true);
+      setCheckpointAnswered(new Set([...checkpointAnswered, currentCheckpoint.id]));
 
-    // Call API to save progress
-    if (onCheckpointAnswer) {
-      onCheckpointAnswer(currentCheckpoint.id, userAnswer, correct);
+      if (onCheckpointAnswer) {
+        onCheckpointAnswer(currentCheckpoint.id, response.data);
+      }
+    } catch (error) {
+      toast.error(error.response?.data?.message || 'Không thể gửi câu trả lời, vui lòng thử lại!');
+    } finally {
+      setSubmitting(false);
     }
   };
 
@@ -195,6 +215,7 @@ const VideoPlayerWithCheckpoints = ({ youtubeUrl, checkpoints, onCheckpointAnswe
     
     setShowCheckpointModal(false);
     setShowResult(false);
+    setAnswerResult(null);
     setUserAnswer('');
     setCurrentCheckpoint(null);
     showCheckpointModalRef.current = false;
@@ -350,7 +371,7 @@ const VideoPlayerWithCheckpoints = ({ youtubeUrl, checkpoints, onCheckpointAnswe
                     <motion.button
                       type="button"
                       onClick={handleCheckpointSubmit}
-                      disabled={!userAnswer || userAnswer.trim() === ''}
+                      disabled={!userAnswer || userAnswer.trim() === '' || submitting}
                       whileHover={userAnswer && userAnswer.trim() !== '' ? { scale: 1.02 } : {}}
                       whileTap={userAnswer && userAnswer.trim() !== '' ? { scale: 0.98 } : {}}
                       className={`btn btn-primary w-full py-3 text-lg ${
@@ -376,8 +397,8 @@ const VideoPlayerWithCheckpoints = ({ youtubeUrl, checkpoints, onCheckpointAnswe
                 <>
                   <CheckCircleIcon className="w-20 h-20 text-green-500 mx-auto mb-4" />
                   <h3 className="text-2xl font-bold text-green-600 mb-2">Đúng rồi!</h3>
-                  {currentCheckpoint?.explanation && (
-                    <p className="text-gray-700 mt-4 mb-6">{currentCheckpoint.explanation}</p>
+                  {answerResult?.explanation && (
+                    <p className="text-gray-700 mt-4 mb-6">{answerResult.explanation}</p>
                   )}
                 </>
               ) : (
@@ -385,10 +406,10 @@ const VideoPlayerWithCheckpoints = ({ youtubeUrl, checkpoints, onCheckpointAnswe
                   <XCircleIcon className="w-20 h-20 text-red-500 mx-auto mb-4" />
                   <h3 className="text-2xl font-bold text-red-600 mb-2">Sai rồi!</h3>
                   <p className="text-gray-700 mb-2">
-                    Đáp án đúng: <span className="font-semibold">{currentCheckpoint?.correctAnswer}</span>
+                    Đáp án đúng: <span className="font-semibold">{answerResult?.correctAnswer}</span>
                   </p>
-                  {currentCheckpoint?.explanation && (
-                    <p className="text-gray-700 mt-4 mb-6">{currentCheckpoint.explanation}</p>
+                  {answerResult?.explanation && (
+                    <p className="text-gray-700 mt-4 mb-6">{answerResult.explanation}</p>
                   )}
                 </>
               )}
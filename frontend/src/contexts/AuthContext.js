@@ -154,6 +154,15 @@ export const AuthProvider = ({ children }) => {
             newPassword: newPassword // Phải khớp với tên trường 'newPassword' trong DTO (PasswordUpdateRequest) của Backend
         });
 
+        // Token cũ bị thu hồi sau khi đổi mật khẩu: dùng token mới backend trả về
+        const authHeader = response.headers['authorization'];
+        if (authHeader && authHeader.startsWith('Bearer ')) {
+            const newToken = authHeader.substring(7);
+            setToken(newToken);
+            localStorage.setItem('token', newToken);
+            api.defaults.headers.common['Authorization'] = authHeader;
+        }
+
         notifications.changedPasswordSuccess("Đổi mật khẩu thành công!");
         
         return { success: true };
@@ -2,6 +2,7 @@ import React, { useState, useEffect } from 'react';
 import { useQuery, useMutation, useQueryClient } from 'react-query';
 import { useNavigate } from 'react-router-dom';
 import api from '../../utils/api';
+import { fetchLessonSummaries } from '../../utils/lessonCatalog';
 import LoadingSpinner from '../../components/UI/LoadingSpinner';
 import Modal from '../../components/UI/Modal';
 import { useAuth } from '../../contexts/AuthContext';
@@ -76,11 +77,8 @@ const Assignments = () => {
 
   // Fetch lessons for teacher (to select when creating assignment)
   const { data: lessons = [] } = useQuery(
-    'lessons',
-    async () => {
-      const response = await api.get('/lessons');
-      return response.data;
-    },
+    ['lessons', 'catalog'],
+    fetchLessonSummaries,
     {
       enabled: isTeacher, // Only fetch if teacher
     }
@@ -269,6 +267,7 @@ const Assignments = () => {
       deadline: editing.deadline || null,
       lesson: editing.lessonId ? { id: editing.lessonId } : null,
       questions: questions.map((q) => ({
+        id: q.id, // Giữ id câu hỏi cũ khi sửa; id tạm của câu hỏi mới được server bỏ qua
         question: q.question,
         questionType: q.questionType,
         options: JSON.stringify(q.options.filter((opt) => opt.trim())),
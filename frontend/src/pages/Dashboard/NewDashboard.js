@@ -3,6 +3,7 @@ import { useQuery } from 'react-query';
 import { useAuth } from '../../contexts/AuthContext';
 import { useNavigate } from 'react-router-dom';
 import api from '../../utils/api';
+import { fetchLessonSummaries } from '../../utils/lessonCatalog';
 import LoadingSpinner from '../../components/UI/LoadingSpinner';
 import {
   BookOpenIcon,
@@ -17,6 +18,9 @@ import {
 } from '@heroicons/react/24/outline';
 import { motion } from 'framer-motion';
 
+// Số học sinh đầu bảng hiển thị trên dashboard
+const RANKING_LIMIT = 20;
+
 const NewDashboard = () => {
   const { user } = useAuth();
   const navigate = useNavigate();
@@ -50,23 +54,34 @@ const NewDashboard = () => {
     }
   );
 
-  // Fetch lessons
+  // Fetch lessons (danh mục tóm tắt, mới nhất trước - dashboard chỉ cần id, tiêu đề và thời lượng)
   const { data: lessons, isLoading: isLoadingLessons } = useQuery(
-    'lessons',
+    ['lessons', 'catalog'],
+    fetchLessonSummaries
+  );
+
+  // Fetch top of the student ranking (API phân trang, tổng số học sinh nằm trong header X-Total-Count)
+  const { data: rankingPage, isLoading: isLoadingRanking } = useQuery(
+    ['studentRanking', RANKING_LIMIT],
     async () => {
-      const response = await api.get('/lessons');
-      return response.data;
+      const response = await api.get('/ranking/students', { params: { offset: 0, limit: RANKING_LIMIT } });
+      return { students: response.data, total: Number(response.headers['x-total-count']) || response.data.length };
     }
   );
+  const ranking = rankingPage?.students;
 
-  // Fetch student ranking
-  const { data: ranking, isLoading: isLoadingRanking } = useQuery(
-    'studentRanking',
+  // Học sinh ngoài top vẫn thấy thứ hạng của mình
+  const { data: myRank } = useQuery(
+    'myStudentRank',
     async () => {
-      const response = await api.get('/ranking/students');
+      const response = await api.get('/ranking/students/me');
       return response.data;
-    }
+    },
+    { enabled: user?.role === 'student', retry: false }
   );
+  const rankingRows = ranking && myRank && !ranking.some((s) => s.id === myRank.id)
+    ? [...ranking, myRank]
+    : ranking;
 
   if (isLoadingProgress || isLoadingStats || isLoadingCalendar || isLoadingLessons || isLoadingRanking) {
     return (
@@ -263,6 +278,9 @@ const NewDashboard = () => {
               <SparklesIcon className="w-6 h-6 mr-2 text-yellow-500" />
               Bảng xếp hạng học sinh
             </h2>
+            <span className="text-sm text-gray-500">
+              Top {ranking.length} / {rankingPage.total} học sinh
+            </span>
           </div>
           <div className="overflow-x-auto">
             <table className="w-full">
@@ -275,21 +293,21 @@ const NewDashboard = () => {
                 </tr>
               </thead>
               <tbody>
-                {ranking.map((student, index) => (
+                {rankingRows.map((student, index) => (
                   <motion.tr
                     key={student.id}
                     initial={{ opacity: 0, y: 10 }}
                     animate={{ opacity: 1, y: 0 }}
                     transition={{ delay: index * 0.05 }}
-                    className="border-b bg-white hover:bg-gray-50 transition-all"
+                    className={`border-b hover:bg-gray-50 transition-all ${student.id === myRank?.id ? 'bg-blue-50' : 'bg-white'}`}
                   >
                     <td className="py-3 px-4">
                       <div className="flex items-center">
-                        {index === 0 && <TrophyIcon className="w-5 h-5 text-yellow-500 mr-2" />}
-                        {index === 1 && <TrophyIcon className="w-5 h-5 text-gray-400 mr-2" />}
-                        {index === 2 && <TrophyIcon className="w-5 h-5 text-orange-500 mr-2" />}
-                        <span className={`font-semibold ${index < 3 ? 'text-lg' : ''}`}>
-                          {index + 1}
+                        {student.rank === 1 && <TrophyIcon className="w-5 h-5 text-yellow-500 mr-2" />}
+                        {student.rank === 2 && <TrophyIcon className="w-5 h-5 text-gray-400 mr-2" />}
+                        {student.rank === 3 && <TrophyIcon className="w-5 h-5 text-orange-500 mr-2" />}
+                        <span className={`font-semibold ${student.rank <= 3 ? 'text-lg' : ''}`}>
+                          {student.rank}
                         </span>
                       </div>
                     </td>
@@ -1,6 +1,6 @@
 import React, { useState } from 'react';
 import { useParams } from 'react-router-dom';
-import { useQuery, useMutation, useQueryClient } from 'react-query';
+import { useQuery, useQueryClient } from 'react-query';
 import api from '../../utils/api';
 import LoadingSpinner from '../../components/UI/LoadingSpinner';
 import VideoPlayerWithCheckpoints from '../../components/VideoPlayer/VideoPlayerWithCheckpoints';
@@ -12,57 +12,21 @@ const LessonDetail = () => {
   const queryClient = useQueryClient();
   const [showQuiz, setShowQuiz] = useState(false);
   
-  const { data: lesson, isLoading } = useQuery(['lesson', id], async () => {
-    const response = await api.get(`/lessons/${id}`);
-    return response.data;
-  });
-
-  const { data: checkpoints } = useQuery(['checkpoints', id], async () => {
-    const response = await api.get(`/lessons/${id}/checkpoints`);
+  // Bài học, checkpoint, quiz và tiến trình lấy trong 1 request (server trả 304 nếu không đổi)
+  const { data: bundle, isLoading } = useQuery(['lessonBundle', id], async () => {
+    const response = await api.get(`/lessons/${id}/bundle`);
     return response.data;
   }, { enabled: !!id });
 
-  const { data: quiz } = useQuery(['quiz', id], async () => {
-    const response = await api.get(`/lessons/${id}/quiz`);
-    return response.data;
-  }, { enabled: !!id });
+  const lesson = bundle?.lesson;
+  const checkpoints = bundle?.checkpoints;
+  const quiz = bundle?.quiz;
+  const progress = bundle?.progress;
 
-  const { data: progress } = useQuery(['progress', id], async () => {
-    const response = await api.get(`/student/lessons/${id}/progress`);
-    return response.data;
-  }, { enabled: !!id && user?.role === 'student' });
-
-  const updateProgressMutation = useMutation(
-    (data) => api.post(`/student/lessons/${id}/progress`, data),
-    {
-      onSuccess: () => {
-        queryClient.invalidateQueries(['progress', id]);
-      },
-    }
-  );
-
-  const handleCheckpointAnswer = async (checkpointId, answer, isCorrect) => {
-    if (user?.role === 'student' && lesson) {
-      // Get current video time or use 0
-      const videoProgressSeconds = progress?.videoProgressSeconds || 0;
-      
-      // Calculate total checkpoints from lesson
-      const totalCheckpoints = checkpoints?.length || 0;
-      const currentCompleted = progress?.checkpointsCompleted || 0;
-      const newCompleted = currentCompleted + 1;
-      
-      const updatedProgress = {
-        lessonId: lesson.id,
-        videoProgressSeconds: videoProgressSeconds,
-        checkpointsCompleted: newCompleted,
-        totalCheckpoints: totalCheckpoints,
-        completed: newCompleted >= totalCheckpoints && progress?.quizScore !== null,
-      };
-      
-      updateProgressMutation.mutate(updatedProgress);
-      
-      // Also invalidate progress query to refresh UI
-      queryClient.invalidateQueries(['progress', id]);
+  // Câu trả lời đã được chấm và ghi tiến trình ở server, chỉ cần tải lại bundle
+  const handleCheckpointAnswer = () => {
+    if (user?.role === 'student') {
+      queryClient.invalidateQueries(['lessonBundle', id]);
     }
   };
 
@@ -1,15 +1,36 @@
 import React from 'react';
-import { useQuery } from 'react-query';
+import { useInfiniteQuery } from 'react-query';
 import api from '../../utils/api';
 import LoadingSpinner from '../../components/UI/LoadingSpinner';
 import { motion } from 'framer-motion';
 
+const PAGE_SIZE = 24;
+
+const formatDuration = (seconds) => {
+  if (!seconds) return null;
+  const minutes = Math.round(seconds / 60);
+  return minutes >= 60 ? `${Math.floor(minutes / 60)} giờ ${minutes % 60} phút` : `${minutes} phút`;
+};
+
 const Lessons = () => {
-  const { data: lessons, isLoading } = useQuery('lessons', async () => {
-    const response = await api.get('/lessons');
-    return response.data;
+  // Danh mục dạng tóm tắt, tải từng trang theo cursor (mô tả đầy đủ xem ở trang chi tiết)
+  const {
+    data,
+    isLoading,
+    fetchNextPage,
+    hasNextPage,
+    isFetchingNextPage,
+  } = useInfiniteQuery('lessonCatalog', async ({ pageParam }) => {
+    const response = await api.get('/lessons/catalog', {
+      params: { limit: PAGE_SIZE, cursor: pageParam },
+    });
+    return { items: response.data, nextCursor: response.headers['x-next-cursor'] };
+  }, {
+    getNextPageParam: (lastPage) => lastPage.nextCursor || undefined,
   });
 
+  const lessons = data?.pages.flatMap((page) => page.items);
+
   if (isLoading) {
     return (
       <div className="flex items-center justify-center min-h-screen">
@@ -34,7 +55,9 @@ const Lessons = () => {
               onClick={() => window.location.href = `/lessons/${lesson.id}`}
             >
               <h3 className="text-xl font-semibold mb-2">{lesson.title}</h3>
-              <p className="text-gray-600 mb-4">{lesson.description}</p>
+              <p className="text-gray-600 mb-4">
+                {[lesson.teacherName, formatDuration(lesson.totalDuration)].filter(Boolean).join(' · ')}
+              </p>
               <a
                 href={`/lessons/${lesson.id}`}
                 className="text-blue-600 hover:text-blue-800 font-medium"
@@ -47,6 +70,18 @@ const Lessons = () => {
           <p className="text-gray-500">Chưa có bài học nào</p>
         )}
       </div>
+
+      {hasNextPage && (
+        <div className="flex justify-center">
+          <button
+            onClick={() => fetchNextPage()}
+            disabled={isFetchingNextPage}
+            className="px-4 py-2 border border-gray-300 rounded-lg text-gray-700 hover:bg-gray-50 disabled:opacity-50"
+          >
+            {isFetchingNextPage ? 'Đang tải...' : 'Xem thêm'}
+          </button>
+        </div>
+      )}
     </div>
   );
 };
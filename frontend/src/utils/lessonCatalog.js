@@ -0,0 +1,19 @@
+import api from './api';
+
+// Trang lớn nhất server cho phép (MAX_CATALOG_PAGE_SIZE trong LessonController)
+const CATALOG_PAGE_SIZE = 100;
+
+// Toàn bộ danh mục bài học dạng tóm tắt (id, title, totalDuration, teacherName, createdAt), mới nhất trước.
+// Đi hết các trang theo header X-Next-Cursor; mỗi trang có ETag riêng nên lần tải lại thường chỉ nhận 304.
+export const fetchLessonSummaries = async () => {
+  const lessons = [];
+  let cursor;
+  do {
+    const response = await api.get('/lessons/catalog', {
+      params: { limit: CATALOG_PAGE_SIZE, cursor },
+    });
+    lessons.push(...response.data);
+    cursor = response.headers['x-next-cursor'];
+  } while (cursor);
+  return lessons;
+};
@@ -0,0 +1,70 @@
+import api from './api';
+
+// Heartbeat tiến trình video: gom theo bài học trong bộ nhớ, gửi 1 request batch mỗi FLUSH_INTERVAL_MS
+const FLUSH_INTERVAL_MS = 15000;
+const BATCH_PATH = '/student/lessons/progress/batch';
+
+const pending = new Map();
+let timer = null;
+
+const takeUpdates = () => {
+  const updates = Array.from(pending.values());
+  pending.clear();
+  return updates;
+};
+
+export const flushProgress = async () => {
+  if (pending.size === 0) return;
+  const updates = takeUpdates();
+  try {
+    await api.post(BATCH_PATH, { updates });
+  } catch (error) {
+    // Gửi lỗi: đưa lại vào hàng đợi (server chỉ lấy số giây lớn nhất nên gửi lại không sao)
+    updates.forEach((update) => recordProgress(update.lessonId, update.videoProgressSeconds));
+  }
+};
+
+// Trang bị ẩn / đóng: axios có thể bị hủy giữa chừng nên dùng fetch keepalive
+const flushOnLeave = () => {
+  if (pending.size === 0) return;
+  const token = localStorage.getItem('token');
+  fetch(`${api.defaults.baseURL}${BATCH_PATH}`, {
+    method: 'POST',
+    keepalive: true,
+    headers: {
+      'Content-Type': 'application/json',
+      ...(token ? { Authorization: `Bearer ${token}` } : {}),
+    },
+    body: JSON.stringify({ updates: takeUpdates() }),
+  }).catch(() => {});
+};
+
+const onVisibilityChange = () => {
+  if (document.visibilityState === 'hidden') {
+    flushOnLeave();
+  }
+};
+
+export const recordProgress = (lessonId, videoProgressSeconds) => {
+  const id = Number(lessonId);
+  const current = pending.get(id);
+  if (current && current.videoProgressSeconds >= videoProgressSeconds) return;
+  pending.set(id, { lessonId: id, videoProgressSeconds });
+
+  if (!timer) {
+    timer = setInterval(flushProgress, FLUSH_INTERVAL_MS);
+    document.addEventListener('visibilitychange', onVisibilityChange);
+    window.addEventListener('pagehide', flushOnLeave);
+  }
+};
+
+// Gọi khi rời trình phát: gửi nốt phần còn lại và dừng hẹn giờ
+export const stopProgressHeartbeat = () => {
+  if (timer) {
+    clearInterval(timer);
+    timer = null;
+    document.removeEventListener('visibilitychange', onVisibilityChange);
+    window.removeEventListener('pagehide', flushOnLeave);
+  }
+  return flushProgress();
+};